@@ -0,0 +1,91 @@
+/**
+ * CPSC 326, Spring 2025
+ * Synthetic mypl sources for the lexer benchmarks.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+
+/**
+ * The shapes of generated benchmark input. Each corpus is plain ASCII,
+ * so its size in characters equals its size in bytes.
+ */
+public enum Corpus {
+
+  /** Identifiers and reserved words with a few operators. */
+  IDENTIFIERS,
+  /** Integer and double literals. */
+  NUMBERS,
+  /** String literals, a quarter of them with escapes. */
+  STRINGS,
+  /** Long comment lines between short statements. */
+  COMMENTS,
+  /** Repetitions of examples/hw1_tokens.mypl. */
+  TOKENS;
+
+  private static final String[] WORDS = {
+    "var", "while", "struct", "return", "if", "else", "and", "not", "int", "string",
+  };
+
+  /**
+   * Generates a corpus of about the given number of characters.
+   * @param size The target size in characters
+   * @return The generated mypl source
+   * @throws IOException If the example file cannot be read
+   */
+  public String generate(int size) throws IOException {
+    StringBuilder out = new StringBuilder(size + 256);
+    Random random = new Random(326);
+    if (this == TOKENS) {
+      String example = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+      while (out.length() < size) {
+        out.append(example).append('\n');
+      }
+      return out.toString();
+    }
+    while (out.length() < size) {
+      switch (this) {
+        case IDENTIFIERS:
+          for (int i = 0; i < 8; ++i) {
+            if (random.nextInt(4) == 0) {
+              out.append(WORDS[random.nextInt(WORDS.length)]);
+            } else {
+              out.append("name_").append(random.nextInt(100000));
+            }
+            out.append(i % 3 == 0 ? " = " : " ");
+          }
+          break;
+        case NUMBERS:
+          for (int i = 0; i < 8; ++i) {
+            out.append(random.nextInt(1000000));
+            if (random.nextBoolean()) {
+              out.append('.').append(random.nextInt(10000));
+            }
+            out.append(i % 2 == 0 ? ", " : " + ");
+          }
+          break;
+        case STRINGS:
+          for (int i = 0; i < 4; ++i) {
+            out.append(random.nextInt(4) == 0 ? "\"tab\\tand \\\"quoted\\\" text\\n\" "
+                                              : "\"a plain string literal of some length\" ");
+          }
+          break;
+        case COMMENTS:
+          out.append("# a comment line describing the statement below it, ")
+             .append("written the way documented sources tend to be\n")
+             .append("x = x + ").append(random.nextInt(100));
+          break;
+        default:
+          break;
+      }
+      out.append('\n');
+    }
+    return out.toString();
+  }
+
+}
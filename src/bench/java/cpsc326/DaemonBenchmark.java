@@ -0,0 +1,103 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMH latency benchmarks for the lexer daemon.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the latency of lexing one editor-sized file by starting
+ * `mypl -m LEX` in a fresh JVM with a round trip to a warm LexServer
+ * on a Unix domain socket.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaemonBenchmark {
+
+  private Path dir;
+  private Path file;
+  private char[] source;
+  private LexServer server;
+  private LexClient client;
+
+  /**
+   * Writes the input file and starts the server.
+   * @throws IOException If the file or socket cannot be created
+   */
+  @Setup
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("mypl-bench");
+    file = dir.resolve("input.mypl");
+    Files.writeString(file, Corpus.TOKENS.generate(20_000));
+    source = Files.readString(file).toCharArray();
+    server = LexServer.unix(dir.resolve("lexer.sock"));
+    Thread.ofVirtual().start(() -> {
+      try {
+        server.serve(new PrintStream(OutputStream.nullOutputStream()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    client = LexClient.connect(server.address());
+  }
+
+  /**
+   * Stops the server and removes the input file.
+   * @throws IOException If the files cannot be removed
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    client.close();
+    server.close();
+    Files.delete(file);
+    Files.delete(dir);
+  }
+
+  /**
+   * Lexes the file in a new JVM, the way a one-shot CLI call does.
+   */
+  @Benchmark
+  public int coldCli() throws IOException, InterruptedException {
+    Process process = new ProcessBuilder(
+        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"),
+        "cpsc326.MyPL", "-m", "LEX", file.toString())
+      .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+      .redirectError(ProcessBuilder.Redirect.INHERIT)
+      .start();
+    return process.waitFor();
+  }
+
+  /**
+   * Lexes the file through the warm server.
+   */
+  @Benchmark
+  public TokenBuffer warmRoundTrip() throws IOException {
+    return client.lex(source);
+  }
+
+}
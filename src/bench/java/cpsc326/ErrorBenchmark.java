@@ -0,0 +1,54 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMH benchmarks for the lexer's error path.
+ */
+
+package cpsc326;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures lexing a short malformed input the way a fuzzer does: one
+ * lexer per input, stopping at the first error. The error sits a few
+ * calls deep, as it would in a parser driving the lexer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorBenchmark {
+
+  private final char[] source = "x = 1 + y; s = \"ok\\q\"".toCharArray();
+
+  @Benchmark
+  public Object throwing() {
+    try {
+      Lexer lexer = new Lexer(source, 0, source.length);
+      while (lexer.nextToken().tokenType != TokenType.EOS) {
+        continue;
+      }
+      return null;
+    } catch (MyPLException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object throwingWithMessage() {
+    Object e = throwing();
+    return e == null ? null : ((MyPLException) e).getMessage();
+  }
+
+}
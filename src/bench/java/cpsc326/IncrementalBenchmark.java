@@ -0,0 +1,72 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMH latency benchmarks for incremental re-lexing.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares re-lexing a 10,000-line file from scratch with updating its
+ * tokens incrementally after a one-character edit in the middle.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IncrementalBenchmark {
+
+  private TokenBuffer tokens;
+  private int offset;
+
+  /**
+   * Builds the 10,000-line file and lexes it once.
+   * @throws IOException If the example file cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    String source = Corpus.TOKENS.generate(10_000 * 25);
+    int lines = 0;
+    int at = 0;
+    while (lines < 10_000 && at >= 0) {
+      at = source.indexOf('\n', at + 1);
+      ++lines;
+    }
+    tokens = TokenBuffer.lex(source.substring(0, at + 1).toCharArray());
+    offset = tokens.start(tokens.size() / 2);
+  }
+
+  /**
+   * Lexes the edited file from scratch.
+   */
+  @Benchmark
+  public TokenBuffer fullRelex() {
+    char[] source = tokens.source().clone();
+    source[offset] = 'q';
+    return TokenBuffer.lex(source);
+  }
+
+  /**
+   * Replaces one character in the middle of the file incrementally.
+   */
+  @Benchmark
+  public TokenBuffer incrementalRelex() {
+    return IncrementalLexer.relex(tokens, offset, 1, "q");
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMH benchmark for classifying identifiers as reserved words.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Compares the string switch the lexer used to classify identifiers
+ * with the Keywords table, over every identifier and reserved word of
+ * the IDENTIFIERS corpus. The score is nanoseconds per word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeywordBenchmark {
+
+  private static final int WORDS = 1 << 16;
+
+  private char[] source;
+  private final int[] starts = new int[WORDS];
+  private final int[] lengths = new int[WORDS];
+
+  /**
+   * Collects the first WORDS identifiers and reserved words of a 1 MB
+   * IDENTIFIERS corpus.
+   * @throws IOException Never, for this corpus
+   */
+  @Setup
+  public void setup() throws IOException {
+    source = Corpus.IDENTIFIERS.generate(1 << 20).toCharArray();
+    TokenBuffer tokens = TokenBuffer.lex(source);
+    int n = 0;
+    for (int i = 0; i < tokens.size() && n < WORDS; ++i) {
+      if (Character.isLetter(source[tokens.start(i)]) && tokens.type(i) != TokenType.EOS) {
+        starts[n] = tokens.start(i);
+        lengths[n] = tokens.length(i);
+        ++n;
+      }
+    }
+    if (n < WORDS) {
+      throw new IllegalStateException("corpus has only " + n + " words");
+    }
+  }
+
+  /**
+   * The classification before Keywords: build the lexeme, then switch
+   * on it.
+   */
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public int stringSwitch() {
+    int reserved = 0;
+    for (int i = 0; i < WORDS; ++i) {
+      if (switchType(new String(source, starts[i], lengths[i])) != TokenType.ID) {
+        ++reserved;
+      }
+    }
+    return reserved;
+  }
+
+  /**
+   * The classification since Keywords: look the slice up in place.
+   */
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public int perfectHash() {
+    int reserved = 0;
+    for (int i = 0; i < WORDS; ++i) {
+      if (Keywords.lookup(source, starts[i], lengths[i]) != TokenType.ID) {
+        ++reserved;
+      }
+    }
+    return reserved;
+  }
+
+  /**
+   * The switch Lexer used before Keywords.
+   */
+  private static TokenType switchType(String lexeme) {
+    switch (lexeme) {
+      case "and":     return TokenType.AND;
+      case "or":      return TokenType.OR;
+      case "not":     return TokenType.NOT;
+      case "struct":  return TokenType.STRUCT;
+      case "var":     return TokenType.VAR;
+      case "if":      return TokenType.IF;
+      case "else":    return TokenType.ELSE;
+      case "while":   return TokenType.WHILE;
+      case "for":     return TokenType.FOR;
+      case "from":    return TokenType.FROM;
+      case "to":      return TokenType.TO;
+      case "new":     return TokenType.NEW;
+      case "true":    return TokenType.BOOL_VAL;
+      case "false":   return TokenType.BOOL_VAL;
+      case "null":    return TokenType.NULL_VAL;
+      case "void":    return TokenType.VOID_TYPE;
+      case "int":     return TokenType.INT_TYPE;
+      case "double":  return TokenType.DOUBLE_TYPE;
+      case "bool":    return TokenType.BOOL_TYPE;
+      case "string":  return TokenType.STRING_TYPE;
+      case "return":  return TokenType.RETURN;
+      default:        return TokenType.ID;
+    }
+  }
+
+}
@@ -0,0 +1,241 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMH throughput benchmarks for the lexer.
+ */
+
+package cpsc326;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Measures how fast each lexer path gets through a whole corpus. The
+ * primary score is corpora per second; the megabytes and tokens
+ * counters report MB/s and tokens/s, and -prof gc (on by default in
+ * the bench profile) adds the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+
+  @Param({"IDENTIFIERS", "NUMBERS", "STRINGS", "COMMENTS", "TOKENS"})
+  public Corpus corpus;
+
+  @Param({"1", "100"})
+  public int sizeMb;
+
+  private byte[] bytes;
+  private char[] chars;
+  private TokenBuffer lexed;
+  private final LexerStats stats = new LexerStats();
+  private final IdentifierInterner identifiers = new IdentifierInterner();
+
+  /**
+   * Per-iteration throughput counters.
+   */
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+
+    public double megabytes;
+    public long tokens;
+
+    /**
+     * Resets the counters before each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      megabytes = 0;
+      tokens = 0;
+    }
+
+  }
+
+  /**
+   * Generates the corpus once per benchmark run.
+   * @throws IOException If the example file cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    String source = corpus.generate(sizeMb * 1_000_000);
+    bytes = source.getBytes(StandardCharsets.UTF_8);
+    chars = source.toCharArray();
+    lexed = TokenBuffer.lex(chars);
+  }
+
+  /**
+   * Lexes the corpus from an input stream through nextToken().
+   */
+  @Benchmark
+  public void nextToken(Counters counters, Blackhole bh) {
+    Lexer lexer = new Lexer(new ByteArrayInputStream(bytes));
+    long n = 0;
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      bh.consume(t);
+      ++n;
+    } while (t.tokenType != TokenType.EOS);
+    counters.tokens += n;
+    counters.megabytes += bytes.length / 1e6;
+  }
+
+  /**
+   * Lexes the corpus like nextToken(), with comments skipped.
+   */
+  @Benchmark
+  public void skippingComments(Counters counters, Blackhole bh) {
+    Lexer lexer = new Lexer(new ByteArrayInputStream(bytes)).skippingComments();
+    long n = 0;
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      bh.consume(t);
+      ++n;
+    } while (t.tokenType != TokenType.EOS);
+    counters.tokens += n;
+    counters.megabytes += bytes.length / 1e6;
+  }
+
+  /**
+   * Lexes the corpus like nextToken(), reporting to LexerStats.
+   */
+  @Benchmark
+  public void instrumented(Counters counters, Blackhole bh) {
+    Lexer lexer = new Lexer(new ByteArrayInputStream(bytes)).instrumented(stats);
+    long n = 0;
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      bh.consume(t);
+      ++n;
+    } while (t.tokenType != TokenType.EOS);
+    counters.tokens += n;
+    counters.megabytes += bytes.length / 1e6;
+  }
+
+  /**
+   * The same as nextToken(), with ID lexemes from a pool shared by
+   * every invocation, as in a batch over many files.
+   */
+  @Benchmark
+  public void interning(Counters counters, Blackhole bh) {
+    Lexer lexer = new Lexer(new ByteArrayInputStream(bytes)).interning(identifiers);
+    long n = 0;
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      bh.consume(t);
+      ++n;
+    } while (t.tokenType != TokenType.EOS);
+    counters.tokens += n;
+    counters.megabytes += bytes.length / 1e6;
+  }
+
+  /**
+   * Lexes the buffered corpus into a TokenBuffer.
+   */
+  @Benchmark
+  public void tokenBuffer(Counters counters, Blackhole bh) {
+    TokenBuffer tokens = TokenBuffer.lex(chars);
+    bh.consume(tokens);
+    counters.tokens += tokens.size();
+    counters.megabytes += chars.length / 1e6;
+  }
+
+  /**
+   * Lexes into a TokenBuffer and sums the number values, as a
+   * consumer of a numeric table would.
+   */
+  @Benchmark
+  public void numberValues(Counters counters, Blackhole bh) {
+    TokenBuffer tokens = TokenBuffer.lex(chars);
+    double sum = 0;
+    for (int i = 0; i < tokens.size(); ++i) {
+      if (tokens.type(i) == TokenType.INT_VAL) {
+        sum += tokens.intValue(i);
+      } else if (tokens.type(i) == TokenType.DOUBLE_VAL) {
+        sum += tokens.doubleValue(i);
+      }
+    }
+    bh.consume(sum);
+    counters.tokens += tokens.size();
+    counters.megabytes += chars.length / 1e6;
+  }
+
+  /**
+   * The same, parsing each number's lexeme again.
+   */
+  @Benchmark
+  public void parsedLexemes(Counters counters, Blackhole bh) {
+    TokenBuffer tokens = TokenBuffer.lex(chars);
+    double sum = 0;
+    for (int i = 0; i < tokens.size(); ++i) {
+      if (tokens.type(i) == TokenType.INT_VAL) {
+        sum += Long.parseLong(tokens.lexeme(i));
+      } else if (tokens.type(i) == TokenType.DOUBLE_VAL) {
+        sum += Double.parseDouble(tokens.lexeme(i));
+      }
+    }
+    bh.consume(sum);
+    counters.tokens += tokens.size();
+    counters.megabytes += chars.length / 1e6;
+  }
+
+  /**
+   * Counts the distinct identifiers of the lexed corpus by their
+   * lexeme strings, as a symbol indexer would.
+   */
+  @Benchmark
+  public void identifierStrings(Counters counters, Blackhole bh) {
+    Set<String> names = new HashSet<>();
+    for (int i = 0; i < lexed.size(); ++i) {
+      if (lexed.type(i) == TokenType.ID) {
+        names.add(lexed.lexeme(i));
+      }
+    }
+    bh.consume(names.size());
+    counters.tokens += lexed.size();
+    counters.megabytes += chars.length / 1e6;
+  }
+
+  /**
+   * The same, keyed on lexeme views instead.
+   */
+  @Benchmark
+  public void identifierViews(Counters counters, Blackhole bh) {
+    Set<Lexeme> names = new HashSet<>();
+    for (int i = 0; i < lexed.size(); ++i) {
+      if (lexed.type(i) == TokenType.ID) {
+        names.add(lexed.lexemeView(i));
+      }
+    }
+    bh.consume(names.size());
+    counters.tokens += lexed.size();
+    counters.megabytes += chars.length / 1e6;
+  }
+
+}
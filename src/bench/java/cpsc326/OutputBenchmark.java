@@ -0,0 +1,91 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMH throughput benchmarks for the LEX output formats.
+ */
+
+package cpsc326;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the time to write one million tokens in each LEX output
+ * format to a stream that discards them, so only formatting, copying,
+ * and flushing are counted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputBenchmark {
+
+  private Token[] tokens;
+
+  /**
+   * Lexes a corpus of one million tokens.
+   * @throws IOException If the example file cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    TokenBuffer buffer = TokenBuffer.lex(Corpus.TOKENS.generate(6_000_000).toCharArray());
+    tokens = new Token[1_000_000];
+    for (int i = 0; i < tokens.length; ++i) {
+      tokens[i] = buffer.token(i);
+    }
+  }
+
+  /**
+   * Writes the tokens the old way: println on an autoflushing stream
+   * like System.out.
+   */
+  @Benchmark
+  public void println() {
+    PrintStream out = new PrintStream(new BufferedOutputStream(OutputStream.nullOutputStream()), true,
+                                      StandardCharsets.UTF_8);
+    for (Token t : tokens) {
+      out.println(t);
+    }
+  }
+
+  /**
+   * Writes the tokens with the text writer.
+   */
+  @Benchmark
+  public void text() throws IOException {
+    TokenWriter out = new TokenTextWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+    for (Token t : tokens) {
+      out.write(t);
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the tokens with the binary writer.
+   */
+  @Benchmark
+  public void binary() throws IOException {
+    TokenWriter out = new BinaryTokenWriter(OutputStream.nullOutputStream());
+    for (Token t : tokens) {
+      out.write(t);
+    }
+    out.flush();
+  }
+
+}
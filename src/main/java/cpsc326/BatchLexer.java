@@ -0,0 +1,341 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexes many mypl files in one JVM.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+
+/**
+ * A BatchLexer runs LEX mode over many files on a bounded thread
+ * pool. Each file's tokens go to its own output file, an error only
+ * stops the file it occurs in, and a summary with the total time is
+ * printed once every file is done.
+ */
+public class BatchLexer {
+
+  private final int jobs;        // number of worker threads
+  private final Path outDir;     // where outputs go, or null for next to each source
+  private final PrintStream log; // where errors and the summary go
+  private final LexerStats stats; // the stats to collect, or null
+  private IdentifierInterner identifiers = null; // the pool every lexer shares, if any
+  private boolean binary = false; // write the binary token format instead of text
+  private boolean recover = false; // record lexical errors and keep going
+  private boolean skipComments = false; // leave comments out of the outputs
+  private int maxLexeme = 0;     // the lexeme cap, or 0 for none
+  private int window = 0;        // characters read at a time, or 0 for the default
+  private boolean mapped = false; // read sources through a memory mapping
+  private boolean parallel = false; // lex each source in parallel chunks
+
+  /**
+   * Creates a new batch lexer.
+   * @param jobs The number of files to lex at once
+   * @param outDir The output directory, or null to write each output
+   * next to its source
+   * @param log The stream errors and the summary are printed to
+   */
+  public BatchLexer(int jobs, Path outDir, PrintStream log) {
+    this(jobs, outDir, log, null);
+  }
+
+  /**
+   * Creates a new batch lexer whose lexers all report to the given
+   * stats.
+   * @param stats The stats to collect, or null
+   */
+  public BatchLexer(int jobs, Path outDir, PrintStream log, LexerStats stats) {
+    this.jobs = jobs;
+    this.outDir = outDir;
+    this.log = log;
+    this.stats = stats;
+  }
+
+  /**
+   * Makes every lexer of the batch take its ID lexemes from the given
+   * pool, so a name repeated across files is held once.
+   * @return This batch lexer.
+   */
+  public BatchLexer interning(IdentifierInterner identifiers) {
+    this.identifiers = identifiers;
+    return this;
+  }
+
+  /**
+   * Makes the batch write each file's tokens in the binary format (see
+   * BinaryTokenWriter) instead of as text. A file that ends in an
+   * error gets the error record too.
+   * @return This batch lexer.
+   */
+  public BatchLexer binary() {
+    this.binary = true;
+    return this;
+  }
+
+  /**
+   * Makes every lexer of the batch record lexical errors and keep
+   * going (see Lexer.recovering()). A file's diagnostics are printed
+   * once it is done, and the file does not count as failed.
+   * @return This batch lexer.
+   */
+  public BatchLexer recovering() {
+    this.recover = true;
+    return this;
+  }
+
+  /**
+   * Makes every lexer of the batch skip comments (see
+   * Lexer.skippingComments()), leaving them out of the outputs.
+   * @return This batch lexer.
+   */
+  public BatchLexer skippingComments() {
+    this.skipComments = true;
+    return this;
+  }
+
+  /**
+   * Caps the length of a lexeme for every lexer of the batch (see
+   * Lexer.bounded()).
+   * @param maxLexeme The most source characters a lexeme may have
+   * @return This batch lexer.
+   */
+  public BatchLexer bounded(int maxLexeme) {
+    if (maxLexeme < 1) {
+      throw new IllegalArgumentException("lexeme cap must be positive");
+    }
+    this.maxLexeme = maxLexeme;
+    return this;
+  }
+
+  /**
+   * Makes every lexer of the batch read the given number of
+   * characters at a time (see Lexer(Reader, int)).
+   * @return This batch lexer.
+   */
+  public BatchLexer windowed(int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("window size must be positive");
+    }
+    this.window = window;
+    return this;
+  }
+
+  /**
+   * Makes the batch read each source through a MappedFileReader
+   * instead of a buffered reader.
+   * @return This batch lexer.
+   */
+  public BatchLexer mapped() {
+    this.mapped = true;
+    return this;
+  }
+
+  /**
+   * Makes the batch lex each whole source in parallel chunks (see
+   * ParallelLexer), which helps when a few files are large. Sources
+   * are still lexed by one streaming lexer when the batch recovers,
+   * bounds lexemes, sets a window, collects stats, or interns
+   * identifiers, since the parallel lexer does none of these.
+   * @return This batch lexer.
+   */
+  public BatchLexer parallel() {
+    this.parallel = true;
+    return this;
+  }
+
+  /**
+   * Checks whether a command line file argument names more than one
+   * file, i.e. is a directory or a glob pattern.
+   */
+  public static boolean isPattern(String arg) {
+    return Files.isDirectory(Path.of(arg)) || arg.chars().anyMatch(ch -> "*?[{".indexOf(ch) >= 0);
+  }
+
+  /**
+   * Expands file, directory, and glob arguments into the list of
+   * files to lex. Directories contribute every .mypl file below them.
+   * @param args The command line file arguments
+   * @return The files in argument order, each group sorted
+   * @throws IOException If a directory cannot be walked
+   */
+  public static List<Path> expand(List<String> args) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (String arg : args) {
+      Path path = Path.of(arg);
+      if (Files.isDirectory(path)) {
+        files.addAll(walk(path, p -> p.toString().endsWith(".mypl")));
+      } else if (isPattern(arg)) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + arg);
+        files.addAll(walk(globBase(path), matcher));
+      } else {
+        files.add(path);
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Returns the leading part of a glob that has no pattern characters.
+   */
+  private static Path globBase(Path glob) {
+    Path base = glob.isAbsolute() ? glob.getRoot() : Path.of("");
+    for (Path part : glob) {
+      if (isPattern(part.toString()) && !Files.isDirectory(base.resolve(part))) {
+        break;
+      }
+      base = base.resolve(part);
+    }
+    return base;
+  }
+
+  /**
+   * Lists the regular files below a directory that match the matcher.
+   */
+  private static List<Path> walk(Path dir, PathMatcher matcher) throws IOException {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      return paths.filter(p -> Files.isRegularFile(p) && matcher.matches(p)).sorted().toList();
+    }
+  }
+
+  /**
+   * Returns the output file for the given source: its name with .mypl
+   * replaced by .out.
+   */
+  Path outputFor(Path source) {
+    String name = source.getFileName().toString();
+    if (name.endsWith(".mypl")) {
+      name = name.substring(0, name.length() - ".mypl".length());
+    }
+    Path dir = outDir != null ? outDir : source.toAbsolutePath().getParent();
+    return dir.resolve(name + ".out");
+  }
+
+  /**
+   * Lexes every file and prints a summary.
+   * @param files The files to lex
+   * @return The number of files that failed
+   */
+  public int run(List<Path> files) {
+    final long start = System.nanoTime();
+    ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(jobs, files.size())));
+    List<Future<Long>> results = new ArrayList<>();
+    for (Path file : files) {
+      results.add(pool.submit(() -> lexFile(file)));
+    }
+    long tokens = 0;
+    int failed = 0;
+    for (int i = 0; i < files.size(); ++i) {
+      try {
+        tokens += results.get(i).get();
+      } catch (Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        log.println(files.get(i) + ": " + cause.getMessage());
+        ++failed;
+      }
+    }
+    pool.shutdown();
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    log.printf("mypl: lexed %d files (%d tokens, %d failed) in %d ms%n",
+               files.size(), tokens, failed, millis);
+    return failed;
+  }
+
+  /**
+   * Lexes one file into its output file. Tokens before an error are
+   * still written.
+   * @return The number of tokens written
+   */
+  long lexFile(Path source) throws IOException {
+    if (outDir != null) {
+      Files.createDirectories(outDir);
+    }
+    try (Reader reader = mapped ? new MappedFileReader(source)
+                                : Files.newBufferedReader(source, StandardCharsets.UTF_8);
+         OutputStream file = Files.newOutputStream(outputFor(source))) {
+      TokenWriter out = binary ? new BinaryTokenWriter(file) : new TokenTextWriter(file, StandardCharsets.UTF_8);
+      if (parallel && !recover && maxLexeme == 0 && window == 0 && stats == null && identifiers == null) {
+        return lexParallel(reader, out);
+      }
+      Lexer lexer = window == 0 ? new Lexer(reader) : new Lexer(reader, window);
+      if (maxLexeme > 0) {
+        lexer.bounded(maxLexeme);
+      }
+      if (stats != null) {
+        lexer.instrumented(stats);
+      }
+      if (identifiers != null) {
+        lexer.interning(identifiers);
+      }
+      if (recover) {
+        lexer.recovering();
+      }
+      if (skipComments) {
+        lexer.skippingComments();
+      }
+      long count = 0;
+      Token t = null;
+      try {
+        do {
+          t = lexer.nextToken();
+          out.write(t);
+          ++count;
+        } while (t.tokenType != TokenType.EOS);
+      } catch (MyPLException e) {
+        out.writeError(e);
+        throw e;
+      } finally {
+        out.flush();
+      }
+      for (Diagnostic d : lexer.diagnostics()) {
+        log.println(source + ": " + d);
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Lexes a whole source in parallel chunks and writes its tokens.
+   * Tokens before an error are still written.
+   * @return The number of tokens written
+   */
+  private long lexParallel(Reader reader, TokenWriter out) throws IOException {
+    TokenBuffer tokens = new TokenBuffer(TokenBuffer.readAll(reader), 0);
+    MyPLException error = null;
+    try {
+      ParallelLexer.lex(tokens);
+    } catch (MyPLException e) {
+      error = e;
+    }
+    long count = 0;
+    for (int i = 0; i < tokens.size(); ++i) {
+      if (!skipComments || tokens.type(i) != TokenType.COMMENT) {
+        out.write(tokens.token(i));
+        ++count;
+      }
+    }
+    if (error != null) {
+      out.writeError(error);
+    }
+    out.flush();
+    if (error != null) {
+      throw error;
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * CPSC 326, Spring 2025
+ * Reader for the binary token stream format.
+ */
+
+package cpsc326;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * A BinaryTokenReader rebuilds the tokens written by a
+ * BinaryTokenWriter (see there for the format). Like a lexer, it
+ * throws the recorded MyPLException when it reaches an error record
+ * and keeps returning EOS once the stream has ended.
+ */
+public class BinaryTokenReader implements TokenSource {
+
+  private static final TokenType[] TYPES = TokenType.values();
+  private static final LexError[] CODES = LexError.values();
+
+  private final InputStream in;
+  private final List<String> strings = new ArrayList<>();
+  private final int version;   // the format version of the stream
+  private int line = 0;        // line of the previous token
+  private int column = 0;      // column of the previous token
+  private Token eos = null;    // the EOS token once it has been read
+
+  /**
+   * Creates a reader on the given stream and checks the header.
+   * @param in The binary token stream
+   * @throws IOException If the stream cannot be read or is not a
+   * binary token stream
+   */
+  public BinaryTokenReader(InputStream in) throws IOException {
+    this.in = new BufferedInputStream(in, 1 << 16);
+    byte[] magic = this.in.readNBytes(BinaryTokenWriter.MAGIC.length);
+    if (!Arrays.equals(magic, BinaryTokenWriter.MAGIC)) {
+      throw new IOException("not a binary token stream");
+    }
+    version = this.in.read();
+    if (version != 1 && version != BinaryTokenWriter.VERSION) {
+      throw new IOException("unsupported binary token stream version " + version);
+    }
+  }
+
+  /**
+   * Reads and returns the next token in the stream.
+   * @return The next token in the stream.
+   * @throws MyPLException If the stream records a lexer error here
+   * @throws UncheckedIOException If the stream cannot be read
+   */
+  @Override
+  public Token nextToken() {
+    if (eos != null) {
+      return eos;
+    }
+    try {
+      int header = readVarint();
+      int type = header >>> 1;
+      if (type == BinaryTokenWriter.ERROR) {
+        readError();
+      }
+      if (type < 0 || type >= TYPES.length) {
+        throw new IOException("bad token type " + type);
+      }
+      if ((header & 1) == 0) {
+        column += readVarint();
+      } else {
+        int lineDelta = readVarint();
+        line += lineDelta >>> 1 ^ -(lineDelta & 1);
+        column = readVarint();
+      }
+      TokenType tokenType = TYPES[type];
+      String lexeme = tokenType.fixedLexeme();
+      Token token = new Token(tokenType, lexeme != null ? lexeme : readString(), line, column);
+      if (tokenType == TokenType.EOS) {
+        eos = token;
+      }
+      return token;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads an error record and throws the error it holds.
+   */
+  private void readError() throws IOException {
+    if (version == 1) {
+      String message = readString();
+      MyPLException.lexerError(message.substring(message.indexOf(": ") + 2));
+    }
+    int code = readVarint();
+    if (code > CODES.length) {
+      throw new IOException("bad error code " + code);
+    }
+    int errorLine = readVarint();
+    int errorColumn = readVarint();
+    MyPLException.lexerError(code == 0 ? null : CODES[code - 1], readString(), errorLine, errorColumn);
+  }
+
+  /**
+   * Reads a string table reference, adding a new entry if needed.
+   */
+  private String readString() throws IOException {
+    int index = readVarint();
+    if (index < strings.size()) {
+      return strings.get(index);
+    }
+    if (index != strings.size()) {
+      throw new IOException("bad string index " + index);
+    }
+    int length = readVarint();
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException();
+    }
+    String s = new String(bytes, StandardCharsets.UTF_8);
+    strings.add(s);
+    return s;
+  }
+
+  /**
+   * Reads an unsigned LEB128 varint.
+   */
+  private int readVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("bad varint");
+  }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * CPSC 326, Spring 2025
+ * Writer for the binary token stream format.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * A BinaryTokenWriter encodes tokens in the binary LEX output format.
+ * The stream starts with the magic bytes "MYPLTOK" and a version byte,
+ * followed by one record per token:
+ *
+ *   type     varint of the ordinal times two, plus one if the line
+ *            differs from the previous token's
+ *   line     if it differs, zigzag varint difference from the
+ *            previous token's line
+ *   column   varint difference from the previous token's column if
+ *            the line did not change, otherwise the column itself
+ *   lexeme   only for types without a fixed lexeme: a varint index
+ *            into the string table, where the next unused index is
+ *            followed by a varint UTF-8 length and the bytes of a new
+ *            table entry
+ *
+ * A stream that ended in a lexer error closes with the type ERROR
+ * (one past the last ordinal, times two), then varints of the LexError
+ * ordinal plus one (0 if the error has no code), the line, and the
+ * column, and a string reference to the detail message. Version 1
+ * streams, which only have a string reference to the full message,
+ * can still be read. Most tokens take three or four bytes.
+ * Bytes are collected in a buffer and passed on in large blocks.
+ */
+public class BinaryTokenWriter implements TokenWriter {
+
+  static final byte[] MAGIC = {'M', 'Y', 'P', 'L', 'T', 'O', 'K'};
+  static final byte VERSION = 2;
+  static final int ERROR = TokenType.values().length;
+
+  private final OutputStream out;
+  private final byte[] buf = new byte[1 << 16];
+  private final Map<String, Integer> strings = new HashMap<>();
+  private int count;           // bytes in buf
+  private int line = 0;        // line of the previous token
+  private int column = 0;      // column of the previous token
+
+  /**
+   * Creates a writer on the given stream, starting with the header.
+   * @param out The stream to write to, which is not flushed per token
+   */
+  public BinaryTokenWriter(OutputStream out) {
+    this.out = out;
+    System.arraycopy(MAGIC, 0, buf, 0, MAGIC.length);
+    buf[MAGIC.length] = VERSION;
+    count = MAGIC.length + 1;
+  }
+
+  @Override
+  public void write(Token token) throws IOException {
+    if (count > buf.length - 32) {
+      drain();
+    }
+    int lineDelta = token.line - line;
+    if (lineDelta == 0) {
+      writeVarint(token.tokenType.ordinal() << 1);
+      writeVarint(token.column - column);
+    } else {
+      writeVarint(token.tokenType.ordinal() << 1 | 1);
+      writeVarint(lineDelta << 1 ^ lineDelta >> 31);
+      writeVarint(token.column);
+    }
+    line = token.line;
+    column = token.column;
+    if (token.tokenType.fixedLexeme() == null) {
+      writeString(token.lexeme);
+    }
+  }
+
+  @Override
+  public void writeError(MyPLException error) throws IOException {
+    if (count > buf.length - 32) {
+      drain();
+    }
+    writeVarint(ERROR << 1);
+    writeVarint(error.code() == null ? 0 : error.code().ordinal() + 1);
+    writeVarint(error.line());
+    writeVarint(error.column());
+    writeString(error.detail());
+  }
+
+  /**
+   * Writes a string table reference, adding the string if it is new.
+   */
+  private void writeString(String s) throws IOException {
+    Integer index = strings.get(s);
+    if (index != null) {
+      writeVarint(index);
+      return;
+    }
+    writeVarint(strings.size());
+    strings.put(s, strings.size());
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    if (count > buf.length - 5) {
+      drain();
+    }
+    writeVarint(bytes.length);
+    if (bytes.length > buf.length - count) {
+      drain();
+      out.write(bytes);
+    } else {
+      System.arraycopy(bytes, 0, buf, count, bytes.length);
+      count += bytes.length;
+    }
+  }
+
+  /**
+   * Writes an unsigned LEB128 varint. The caller makes sure there is
+   * room for five bytes.
+   */
+  private void writeVarint(int value) {
+    while ((value & ~0x7f) != 0) {
+      buf[count++] = (byte)(value & 0x7f | 0x80);
+      value >>>= 7;
+    }
+    buf[count++] = (byte)value;
+  }
+
+  /**
+   * Passes the buffered bytes on to the stream.
+   */
+  private void drain() throws IOException {
+    out.write(buf, 0, count);
+    count = 0;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    drain();
+    out.flush();
+  }
+
+}
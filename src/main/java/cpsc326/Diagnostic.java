@@ -0,0 +1,67 @@
+/**
+ * CPSC 326, Spring 2025
+ * A recorded lexical error.
+ */
+
+package cpsc326;
+
+
+/**
+ * A Diagnostic is a lexical error recorded by a Lexer in recovery
+ * mode instead of being thrown.
+ */
+public final class Diagnostic {
+
+  private final LexError kind;     // what went wrong
+  private final String message;    // the error message, without position
+  private final int line;          // where it went wrong
+  private final int column;
+
+  /**
+   * Creates a new diagnostic.
+   */
+  public Diagnostic(LexError kind, String message, int line, int column) {
+    this.kind = kind;
+    this.message = message;
+    this.line = line;
+    this.column = column;
+  }
+
+  /**
+   * Returns the kind of error.
+   */
+  public LexError kind() {
+    return kind;
+  }
+
+  /**
+   * Returns the error message, without the position.
+   */
+  public String message() {
+    return message;
+  }
+
+  /**
+   * Returns the line of the error.
+   */
+  public int line() {
+    return line;
+  }
+
+  /**
+   * Returns the column of the error.
+   */
+  public int column() {
+    return column;
+  }
+
+  /**
+   * Formats the diagnostic the way the lexer's MyPLException message
+   * reads.
+   */
+  @Override
+  public String toString() {
+    return "LEXER_ERROR: [" + line + "," + column + "] " + message;
+  }
+
+}
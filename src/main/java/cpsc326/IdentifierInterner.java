@@ -0,0 +1,175 @@
+/**
+ * CPSC 326, Spring 2025
+ * Shared pool of identifier strings.
+ */
+
+package cpsc326;
+
+
+/**
+ * An IdentifierInterner maps identifier characters to one canonical
+ * String, so lexers that share it (for instance the workers of a
+ * BatchLexer) hand out the same object for the same name instead of a
+ * fresh copy per occurrence. Lookups go straight from the source
+ * characters, and a new String is only made the first time a name is
+ * seen.
+ *
+ * The pool is split into lock stripes, each an open-addressing table
+ * with linear probing. Its size is capped: once a stripe is full, a
+ * new name takes over the first slot it probes, evicting the name that
+ * was there, and names longer than MAX_LENGTH are never pooled. Equal
+ * identifiers are thus the same String unless the name was evicted
+ * between the two lookups, so downstream code should treat == as a
+ * fast path in front of equals().
+ */
+public final class IdentifierInterner {
+
+  /** The longest identifier that is pooled. */
+  public static final int MAX_LENGTH = 64;
+
+  /** The default number of names held. */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  private static final int STRIPE_BITS = 6;
+
+  private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+  /**
+   * Creates a pool that holds up to DEFAULT_CAPACITY names.
+   */
+  public IdentifierInterner() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a pool that holds up to about the given number of names.
+   * The tables take 16 to 32 bytes per name on top of the names
+   * themselves.
+   * @param capacity The most names kept, rounded up so each stripe
+   * holds at least one
+   */
+  public IdentifierInterner(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    int perStripe = Math.max(1, (capacity + stripes.length - 1) / stripes.length);
+    for (int i = 0; i < stripes.length; ++i) {
+      stripes[i] = new Stripe(perStripe);
+    }
+  }
+
+  /**
+   * Returns the canonical String for the given characters.
+   * @param src The characters
+   * @param offset The index of the first character
+   * @param length The number of characters
+   * @return The pooled String, or a new one if the name is too long to
+   * pool
+   */
+  public String intern(char[] src, int offset, int length) {
+    if (length > MAX_LENGTH) {
+      return new String(src, offset, length);
+    }
+    int h = 0;
+    for (int i = offset; i < offset + length; ++i) {
+      h = 31 * h + src[i];
+    }
+    h ^= h >>> 16;
+    h *= 0x9E3779B9;
+    return stripes[h >>> (32 - STRIPE_BITS)].intern(h, src, offset, length);
+  }
+
+  /**
+   * Returns the canonical String equal to the given one.
+   */
+  public String intern(String s) {
+    return intern(s.toCharArray(), 0, s.length());
+  }
+
+  /**
+   * Returns the number of names in the pool.
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of lookups that found their name already
+   * pooled.
+   */
+  public long hits() {
+    long hits = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        hits += stripe.hits;
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * One lock stripe: a table at most half full, so probe runs stay
+   * short, with each name's hash kept next to it.
+   */
+  private static final class Stripe {
+
+    private final int capacity;      // the most names held
+    private final String[] names;    // the pooled names, or null
+    private final int[] hashes;      // the hash of each name
+    private int size = 0;            // the number of names held
+    private long hits = 0;           // lookups that found their name
+
+    Stripe(int capacity) {
+      this.capacity = capacity;
+      int length = Integer.highestOneBit(capacity) << 2;
+      names = new String[length];
+      hashes = new int[length];
+    }
+
+    synchronized String intern(int h, char[] src, int offset, int length) {
+      int mask = names.length - 1;
+      int home = h & mask;
+      int i = home;
+      String name;
+      while ((name = names[i]) != null) {
+        if (hashes[i] == h && matches(name, src, offset, length)) {
+          ++hits;
+          return name;
+        }
+        i = (i + 1) & mask;
+      }
+      name = new String(src, offset, length);
+      if (size < capacity) {
+        ++size;
+      } else if (i != home) {
+        // full: replacing a name keeps every probe run unbroken
+        i = home;
+      } else {
+        return name; // full, with no name on this one's run to evict
+      }
+      names[i] = name;
+      hashes[i] = h;
+      return name;
+    }
+
+    private static boolean matches(String name, char[] src, int offset, int length) {
+      if (name.length() != length) {
+        return false;
+      }
+      for (int i = 0; i < length; ++i) {
+        if (name.charAt(i) != src[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * CPSC 326, Spring 2025
+ * Incremental re-lexing of edited sources.
+ */
+
+package cpsc326;
+
+import java.util.Objects;
+
+
+/**
+ * The IncrementalLexer updates the tokens of a source after a text
+ * edit without re-lexing all of it. Tokens that end before the edit
+ * (with a character to spare, since the lexer looks one character
+ * ahead) cannot change and are copied. Lexing restarts at the last of
+ * them and runs until a new token past the edit starts where an old
+ * token of the same type and length started, shifted by the edit's
+ * change in length. From there the lexer would retrace the old
+ * stream, so the remaining old tokens are copied with their offsets
+ * and lines shifted, and their columns too on that first line. A
+ * string or comment opened or closed by the edit simply keeps the
+ * lexer from lining up until the end of the line. The result,
+ * including any error, is the same as a full re-lex of the new source.
+ */
+public final class IncrementalLexer {
+
+  private IncrementalLexer() {
+  }
+
+  /**
+   * Applies a text edit to the source of the given tokens and lexes
+   * the result.
+   * @param old The tokens of the source before the edit, up to and
+   * including EOS
+   * @param offset The source offset the edit starts at
+   * @param removed The number of characters the edit removes
+   * @param inserted The text the edit inserts at the offset
+   * @return The buffer holding every token of the new source
+   * @throws MyPLException If the new source has a lexical error
+   */
+  public static TokenBuffer relex(TokenBuffer old, int offset, int removed, String inserted) {
+    char[] oldSource = old.source();
+    Objects.checkFromIndexSize(offset, removed, oldSource.length);
+    int delta = inserted.length() - removed;
+    char[] source = new char[oldSource.length + delta];
+    System.arraycopy(oldSource, 0, source, 0, offset);
+    inserted.getChars(0, inserted.length(), source, offset);
+    System.arraycopy(oldSource, offset + removed, source, offset + inserted.length(),
+                     oldSource.length - offset - removed);
+
+    // copy the stable tokens, keeping the last one to restart at
+    int stable = firstUnstable(old, offset);
+    int restart = Math.max(stable - 1, 0);
+    TokenBuffer tokens = new TokenBuffer(source, old.size() + Math.max(delta, 0) / 2);
+    tokens.append(old, 0, restart, 0, 0, 0);
+    Lexer lexer = restart < stable
+        ? new Lexer(source, old.rawStart(restart), source.length, old.line(restart), old.column(restart) - 1)
+        : new Lexer(source, 0, source.length);
+
+    // re-lex until the new tokens line up with the old ones
+    int editEnd = offset + inserted.length();
+    int next = stable;
+    while (true) {
+      TokenType type = lexer.scan();
+      int start = lexer.tokenStart();
+      int length = lexer.tokenLength();
+      tokens.add(type, start, length, lexer.tokenLine(), lexer.tokenColumn(), lexer.tokenValue());
+      int rawStart = tokens.rawStart(tokens.size() - 1);
+      if (rawStart >= editEnd) {
+        while (old.rawStart(next) < rawStart - delta) {
+          ++next;
+        }
+        if (old.rawStart(next) == rawStart - delta && old.type(next) == type && old.length(next) == length) {
+          tokens.truncate(tokens.size() - 1);
+          tokens.append(old, next, old.size(), delta, lexer.tokenLine() - old.line(next),
+                        lexer.tokenColumn() - old.column(next));
+          return tokens;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the first token that the edit at the given
+   * offset may change: the first whose last character or lookahead
+   * reaches the edit.
+   */
+  private static int firstUnstable(TokenBuffer tokens, int offset) {
+    int low = 0;
+    int high = tokens.size() - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (tokens.rawEnd(mid) < offset) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+}
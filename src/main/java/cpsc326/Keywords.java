@@ -0,0 +1,130 @@
+/**
+ * CPSC 326, Spring 2025
+ * Reserved word recognizer for the lexer.
+ */
+
+package cpsc326;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Keywords classifies a scanned identifier as a reserved word or an
+ * ID straight from its source characters. The table is generated
+ * from the fixed lexemes in TokenType (plus true and false) when the
+ * class loads: a multiplier is searched for that sends every word to
+ * its own slot, so a lookup is one hash and at most one comparison.
+ */
+final class Keywords {
+
+  private static final int BITS = 6;
+  private static final int MAX_MULTIPLIER = 1 << 16;
+  private static final int MIN_LENGTH;
+  private static final int MAX_LENGTH;
+  private static final int MULTIPLIER;
+  private static final char[][] WORDS = new char[1 << BITS][];
+  private static final TokenType[] TYPES = new TokenType[1 << BITS];
+
+  static {
+    List<String> words = new ArrayList<>();
+    List<TokenType> types = new ArrayList<>();
+    for (TokenType type : TokenType.values()) {
+      String word = type.fixedLexeme();
+      if (word != null && word.chars().allMatch(Character::isLetter)) {
+        words.add(word);
+        types.add(type);
+      }
+    }
+    words.add("true");
+    types.add(TokenType.BOOL_VAL);
+    words.add("false");
+    types.add(TokenType.BOOL_VAL);
+
+    int multiplier = multiplier(words);
+    MULTIPLIER = multiplier;
+    int min = Integer.MAX_VALUE;
+    int max = 0;
+    for (int i = 0; i < words.size(); ++i) {
+      char[] word = words.get(i).toCharArray();
+      int slot = slot(word, 0, word.length, multiplier);
+      WORDS[slot] = word;
+      TYPES[slot] = types.get(i);
+      min = Math.min(min, word.length);
+      max = Math.max(max, word.length);
+    }
+    MIN_LENGTH = min;
+    MAX_LENGTH = max;
+  }
+
+  private Keywords() {
+  }
+
+  /**
+   * Searches for a multiplier that hashes every word to a distinct
+   * slot. Words with the same first character, last character, and
+   * length collide under every multiplier, so the search is capped.
+   * @throws ExceptionInInitializerError If there is no such
+   * multiplier, naming two words that collide
+   */
+  static int multiplier(List<String> words) {
+    String collision = null;
+    for (int multiplier = 1; multiplier < MAX_MULTIPLIER; multiplier += 2) {
+      collision = collision(words, multiplier);
+      if (collision == null) {
+        return multiplier;
+      }
+    }
+    throw new ExceptionInInitializerError("no perfect hash for the reserved words: " + collision + " collide");
+  }
+
+  /**
+   * Returns two words the given multiplier hashes to the same slot, or
+   * null if every word gets its own slot.
+   */
+  private static String collision(List<String> words, int multiplier) {
+    String[] used = new String[1 << BITS];
+    for (String word : words) {
+      char[] chars = word.toCharArray();
+      int slot = slot(chars, 0, chars.length, multiplier);
+      if (used[slot] != null) {
+        return "\"" + used[slot] + "\" and \"" + word + "\"";
+      }
+      used[slot] = word;
+    }
+    return null;
+  }
+
+  /**
+   * Hashes the first character, last character, and length of a word.
+   */
+  private static int slot(char[] src, int offset, int length, int multiplier) {
+    int key = src[offset] << 16 ^ src[offset + length - 1] << 8 ^ length;
+    return (key * multiplier) >>> (32 - BITS);
+  }
+
+  /**
+   * Classifies the identifier in the given source range.
+   * @param src The source characters
+   * @param offset The first character of the identifier
+   * @param length The number of characters in the identifier
+   * @return The reserved word's token type, or ID
+   */
+  static TokenType lookup(char[] src, int offset, int length) {
+    if (length < MIN_LENGTH || length > MAX_LENGTH) {
+      return TokenType.ID;
+    }
+    int slot = slot(src, offset, length, MULTIPLIER);
+    char[] word = WORDS[slot];
+    if (word == null || word.length != length) {
+      return TokenType.ID;
+    }
+    for (int i = 0; i < length; ++i) {
+      if (word[i] != src[offset + i]) {
+        return TokenType.ID;
+      }
+    }
+    return TYPES[slot];
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * CPSC 326, Spring 2025
+ * Client for the lexer daemon.
+ */
+
+package cpsc326;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+
+/**
+ * A LexClient sends sources to a running LexServer over one
+ * connection and rebuilds the tokens from its responses. A client is
+ * not thread safe; open one per thread.
+ */
+public class LexClient implements Closeable {
+
+  private final SocketChannel channel;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+
+  private LexClient(SocketChannel channel) {
+    this.channel = channel;
+    this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+    this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+  }
+
+  /**
+   * Connects to the server at the given TCP or Unix domain socket
+   * address.
+   * @throws IOException If the connection fails
+   */
+  public static LexClient connect(SocketAddress address) throws IOException {
+    return new LexClient(SocketChannel.open(address));
+  }
+
+  /**
+   * Lexes the given source on the server.
+   * @param source The mypl program
+   * @return The buffer holding every token up to and including EOS
+   * @throws MyPLException If the program has a lexical error
+   * @throws IOException If the server cannot be reached
+   */
+  public TokenBuffer lex(char[] source) throws IOException {
+    TokenBuffer tokens = new TokenBuffer(source, 0);
+    lex(tokens);
+    return tokens;
+  }
+
+  /**
+   * Lexes the source of the given empty buffer on the server into it.
+   * On an error the buffer keeps every token before it.
+   */
+  void lex(TokenBuffer tokens) throws IOException {
+    LexProtocol.writeRequest(out, tokens.source());
+    MyPLException error = LexProtocol.readResponse(in, tokens);
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Closes the connection.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+}
@@ -0,0 +1,17 @@
+/**
+ * CPSC 326, Spring 2025
+ * The kinds of lexical errors.
+ */
+
+package cpsc326;
+
+
+/**
+ * The kinds of errors the lexer reports, so diagnostics can be told
+ * apart without parsing their messages.
+ */
+public enum LexError {
+  UNRECOGNIZED_SYMBOL, EXPECTING_NOT_EQUAL, NON_TERMINATED_STRING, INVALID_ESCAPE,
+  LEADING_ZERO, MISSING_DECIMAL_DIGIT, READ_ERROR, NUMBER_OUT_OF_RANGE,
+  LEXEME_TOO_LONG
+}
@@ -0,0 +1,145 @@
+/**
+ * CPSC 326, Spring 2025
+ * Wire format of the lexer daemon.
+ */
+
+package cpsc326;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * LexProtocol reads and writes the frames exchanged by LexServer and
+ * LexClient. Every frame is a 4-byte big-endian payload length
+ * followed by the payload. A request payload is the UTF-8 source to
+ * lex. A response payload is a status byte (0 for success, 1 for a
+ * lexer error), the token count, and for each token its type ordinal
+ * (1 byte) and lexeme offset, lexeme length, line, and column (4 bytes
+ * each). For status 1 the error follows: its LexError ordinal plus one
+ * (1 byte, 0 if it has no code), line and column (4 bytes each), and
+ * the UTF-8 detail message with its length. Lexemes are sent as
+ * offsets into the request, which the client still holds.
+ */
+final class LexProtocol {
+
+  static final int OK = 0;
+  static final int ERROR = 1;
+  static final int MAX_FRAME = Integer.MAX_VALUE - 8;
+
+  private static final int TOKEN_BYTES = 17;
+  private static final TokenType[] TYPES = TokenType.values();
+  private static final LexError[] CODES = LexError.values();
+
+  private LexProtocol() {
+  }
+
+  /**
+   * Writes a request frame holding the given source.
+   */
+  static void writeRequest(DataOutputStream out, char[] source) throws IOException {
+    byte[] bytes = new String(source).getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+    out.flush();
+  }
+
+  /**
+   * Reads a request frame.
+   * @return The source to lex, or null at the end of the connection
+   * @throws EOFException If the connection ends inside a frame
+   */
+  static char[] readRequest(DataInputStream in) throws IOException {
+    int first = in.read();
+    if (first < 0) {
+      return null;
+    }
+    int length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort();
+    if (length < 0 || length > MAX_FRAME) {
+      throw new IOException("bad frame length " + length);
+    }
+    return new String(readBytes(in, length), StandardCharsets.UTF_8).toCharArray();
+  }
+
+  /**
+   * Writes a response frame for the given tokens and error, which is
+   * null if the source lexed without error.
+   */
+  static void writeResponse(DataOutputStream out, TokenBuffer tokens, MyPLException error)
+      throws IOException {
+    byte[] message = error == null ? new byte[0] : error.detail().getBytes(StandardCharsets.UTF_8);
+    long length = 5L + (long)tokens.size() * TOKEN_BYTES + (error == null ? 0 : 13 + message.length);
+    if (length > MAX_FRAME) {
+      throw new IOException("response too large");
+    }
+    out.writeInt((int)length);
+    out.writeByte(error == null ? OK : ERROR);
+    out.writeInt(tokens.size());
+    for (int i = 0; i < tokens.size(); ++i) {
+      out.writeByte(tokens.type(i).ordinal());
+      out.writeInt(tokens.start(i));
+      out.writeInt(tokens.length(i));
+      out.writeInt(tokens.line(i));
+      out.writeInt(tokens.column(i));
+    }
+    if (error != null) {
+      out.writeByte(error.code() == null ? 0 : error.code().ordinal() + 1);
+      out.writeInt(error.line());
+      out.writeInt(error.column());
+      out.writeInt(message.length);
+      out.write(message);
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads a response frame into the given empty buffer over the
+   * request's source.
+   * @return The lexer error, not yet thrown, or null if there was no
+   * error
+   */
+  static MyPLException readResponse(DataInputStream in, TokenBuffer tokens) throws IOException {
+    in.readInt();
+    int status = in.readUnsignedByte();
+    int count = in.readInt();
+    for (int i = 0; i < count; ++i) {
+      int type = in.readUnsignedByte();
+      if (type >= TYPES.length) {
+        throw new IOException("bad token type " + type);
+      }
+      tokens.add(TYPES[type], in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+    if (status == OK) {
+      return null;
+    }
+    int code = in.readUnsignedByte();
+    if (code > CODES.length) {
+      throw new IOException("bad error code " + code);
+    }
+    int line = in.readInt();
+    int column = in.readInt();
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("bad message length " + length);
+    }
+    byte[] message = readBytes(in, length);
+    return new MyPLException(MyPLException.ErrorType.LEXER_ERROR, code == 0 ? null : CODES[code - 1],
+                             new String(message, StandardCharsets.UTF_8), line, column);
+  }
+
+  /**
+   * Reads exactly the given number of bytes.
+   * @throws EOFException If the stream ends first
+   */
+  private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException();
+    }
+    return bytes;
+  }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * CPSC 326, Spring 2025
+ * Long-running lexer daemon.
+ */
+
+package cpsc326;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * A LexServer keeps a warm JVM around for clients that would
+ * otherwise start one per lex, such as editor integrations. It
+ * listens on a localhost TCP port or a Unix domain socket, serves
+ * each connection on its own virtual thread, and answers every
+ * request frame on a connection with the tokens of its source (see
+ * LexProtocol).
+ */
+public class LexServer implements Closeable {
+
+  private final ServerSocketChannel channel;   // the listening socket
+  private final Path socketFile;               // the Unix socket file, or null for TCP
+  private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+  private volatile LexerStats stats = null;    // the stats to collect, or null
+
+  private LexServer(ServerSocketChannel channel, Path socketFile) {
+    this.channel = channel;
+    this.socketFile = socketFile;
+  }
+
+  /**
+   * Creates a server listening on the given localhost port.
+   * @param port The TCP port, or 0 for any free port
+   * @throws IOException If the port cannot be bound
+   */
+  public static LexServer tcp(int port) throws IOException {
+    ServerSocketChannel channel = ServerSocketChannel.open();
+    channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    return new LexServer(channel, null);
+  }
+
+  /**
+   * Creates a server listening on a Unix domain socket at the given
+   * path. The socket file is removed when the server is closed.
+   * @param path The socket file, which must not exist yet
+   * @throws IOException If the socket cannot be bound
+   */
+  public static LexServer unix(Path path) throws IOException {
+    ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    channel.bind(UnixDomainSocketAddress.of(path));
+    return new LexServer(channel, path);
+  }
+
+  /**
+   * Makes every lexer of the server report to the given stats.
+   * @return This server.
+   */
+  public LexServer instrumented(LexerStats stats) {
+    this.stats = stats;
+    return this;
+  }
+
+  /**
+   * Returns the address clients connect to.
+   */
+  public SocketAddress address() throws IOException {
+    return channel.getLocalAddress();
+  }
+
+  /**
+   * Accepts connections until the server is closed.
+   * @param log The stream connection errors are printed to
+   */
+  public void serve(PrintStream log) throws IOException {
+    try {
+      while (true) {
+        SocketChannel client = channel.accept();
+        connections.submit(() -> handle(client, log));
+      }
+    } catch (ClosedChannelException e) {
+      // closed by close()
+    }
+  }
+
+  /**
+   * Answers the requests on one connection until the client closes it.
+   */
+  private void handle(SocketChannel client, PrintStream log) {
+    try (client) {
+      var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+      var out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+      char[] source;
+      while ((source = LexProtocol.readRequest(in)) != null) {
+        TokenBuffer tokens = new TokenBuffer(source, source.length / 4);
+        MyPLException error = null;
+        try {
+          Lexer lexer = new Lexer(source, 0, source.length);
+          if (stats != null) {
+            lexer.instrumented(stats);
+          }
+          tokens.lexRange(lexer, true);
+        } catch (MyPLException e) {
+          error = e;
+        }
+        LexProtocol.writeResponse(out, tokens, error);
+      }
+    } catch (IOException e) {
+      log.println("mypl: connection error: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops accepting connections and lets open ones finish.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    connections.shutdown();
+    if (socketFile != null) {
+      Files.deleteIfExists(socketFile);
+    }
+  }
+
+}
@@ -0,0 +1,42 @@
+/**
+ * CPSC 326, Spring 2025
+ * Flight recorder event for a lexing session.
+ */
+
+package cpsc326;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * A LexSessionEvent spans one lexer from its creation to EOS or the
+ * error that stopped it. Lexers created while the event is disabled
+ * do not record a session.
+ */
+@Name("cpsc326.LexSession")
+@Label("Lexing Session")
+@Category({"MyPL", "Lexer"})
+@Description("A lexer run from creation to end of stream or error")
+@StackTrace(false)
+final class LexSessionEvent extends jdk.jfr.Event {
+
+  @Label("Characters")
+  @Description("Source characters consumed")
+  long characters;
+
+  @Label("Tokens")
+  long tokens;
+
+  @Label("Diagnostics")
+  @Description("Errors recorded in recovery mode")
+  int diagnostics;
+
+  @Label("Error")
+  @Description("The error that stopped the lexer, if any")
+  String error;
+
+}
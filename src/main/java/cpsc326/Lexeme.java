@@ -0,0 +1,159 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexemes viewed in place in the source.
+ */
+
+package cpsc326;
+
+import java.util.Arrays;
+
+
+/**
+ * A Lexeme is a read-only CharSequence view of a token's lexeme over
+ * the characters of the source, so it can be compared and hashed
+ * without first being copied into a String. Two lexemes are equal when
+ * they hold the same characters, and the hash code is the same as that
+ * of the String with those characters. The view is only valid while
+ * the source array is left unchanged.
+ */
+public final class Lexeme implements CharSequence, Comparable<Lexeme> {
+
+  private static final Lexeme[] FIXED = new Lexeme[TokenType.values().length];
+
+  static {
+    for (TokenType type : TokenType.values()) {
+      if (type.fixedLexeme() != null) {
+        FIXED[type.ordinal()] = of(type.fixedLexeme());
+      }
+    }
+  }
+
+  private final char[] source;   // the characters viewed
+  private final int offset;      // the first character of the lexeme
+  private final int length;      // the number of characters
+  private int hash = 0;          // the hash code, once computed
+
+  /**
+   * Creates a view of length characters of the source from offset on.
+   */
+  Lexeme(char[] source, int offset, int length) {
+    this.source = source;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Returns a lexeme holding the characters of the given string.
+   */
+  public static Lexeme of(String s) {
+    return new Lexeme(s.toCharArray(), 0, s.length());
+  }
+
+  /**
+   * Returns the lexeme of a token of the given type whose lexeme is
+   * the slice offset..offset+length-1 of the source (as in
+   * TokenBuffer). Fixed lexemes are shared, and only a string with
+   * escapes is decoded into new characters.
+   */
+  static Lexeme of(TokenType type, char[] source, int offset, int length) {
+    Lexeme fixed = FIXED[type.ordinal()];
+    if (fixed != null) {
+      return fixed;
+    }
+    if (type == TokenType.STRING_VAL) {
+      for (int i = offset; i < offset + length; ++i) {
+        if (source[i] == '\\') {
+          return of(Lexer.lexeme(type, source, offset, length));
+        }
+      }
+    }
+    return new Lexeme(source, offset, length);
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return source[offset + index];
+  }
+
+  /**
+   * Returns a view of part of this lexeme over the same source.
+   */
+  @Override
+  public Lexeme subSequence(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+    }
+    return new Lexeme(source, offset + start, end - start);
+  }
+
+  /**
+   * Checks whether the lexeme holds the same characters as the given
+   * sequence, such as a String.
+   */
+  public boolean contentEquals(CharSequence other) {
+    if (other instanceof Lexeme lexeme) {
+      return equals(lexeme);
+    }
+    if (other.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; ++i) {
+      if (source[offset + i] != other.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Lexeme lexeme)) {
+      return false;
+    }
+    return Arrays.equals(source, offset, offset + length, lexeme.source, lexeme.offset, lexeme.offset + lexeme.length);
+  }
+
+  /**
+   * Returns the same hash code as String.hashCode() does for the
+   * lexeme's characters.
+   */
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      for (int i = offset; i < offset + length; ++i) {
+        h = 31 * h + source[i];
+      }
+      hash = h;
+    }
+    return h;
+  }
+
+  /**
+   * Compares lexemes by their characters, as String.compareTo() does.
+   */
+  @Override
+  public int compareTo(Lexeme other) {
+    return Arrays.compare(source, offset, offset + length, other.source, other.offset, other.offset + other.length);
+  }
+
+  /**
+   * Copies the lexeme into a new String.
+   */
+  @Override
+  public String toString() {
+    return new String(source, offset, length);
+  }
+
+}
@@ -7,27 +7,274 @@
 
  package cpsc326;
 
- import java.io.BufferedReader;
  import java.io.InputStream;
  import java.io.InputStreamReader;
  import java.io.IOException;
+ import java.io.Reader;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.Collections;
+ import java.util.Comparator;
+ import java.util.List;
+ import java.util.stream.Stream;
+ import java.util.stream.StreamSupport;
  
  
  /**
   * The Lexer class takes an input stream containing mypl source code
-  * and transforms (tokenizes) it into a stream of tokens.
+  * and transforms (tokenizes) it into a stream of tokens. Characters
+  * are pulled from the underlying reader in large chunks into a
+  * window owned by the lexer, so read and peek are plain array
+  * accesses.
   */
- public class Lexer {
+ public class Lexer implements TokenSource {
  
-   private BufferedReader buffer;
+   private static final int WINDOW_SIZE = 1 << 16;
+   private static final char EOF = (char)-1;
+   private static final String DELIMITERS = ".:,()[]{}+-*/=!<>#\"";
+   private static final long MAX_MANTISSA = Long.MAX_VALUE / 10;
+   private static final double[] POWERS_OF_TEN = {
+     1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+     1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+   };
+
+   // ASCII character classes, taken from the Character predicates the
+   // lexer used to call directly
+   private static final byte WHITESPACE = 1;
+   private static final byte DIGIT = 2;
+   private static final byte ID_START = 4;
+   private static final byte ID_PART = 8;
+   private static final byte[] CHAR_CLASS = new byte[128];
+
+   static {
+     for (char ch = 0; ch < CHAR_CLASS.length; ++ch) {
+       int flags = 0;
+       if (Character.isWhitespace(ch)) {
+         flags |= WHITESPACE;
+       }
+       if (Character.isDigit(ch)) {
+         flags |= DIGIT;
+       }
+       if (Character.isLetter(ch)) {
+         flags |= ID_START;
+       }
+       if (Character.isLetterOrDigit(ch) || ch == '_') {
+         flags |= ID_PART;
+       }
+       CHAR_CLASS[ch] = (byte)flags;
+     }
+   }
+
+   private Reader reader;        // null once the input is exhausted
+   private char[] window;        // the buffered characters
+   private int pos = 0;          // index of the next character to read
+   private int limit = 0;        // one past the last buffered character
    private int line = 1;        
    private int column = 0;      
+
+   // the most recently scanned token, as a slice of the window
+   private TokenType tokenType;
+   private int start = -1;       // first lexeme character, -1 between tokens
+   private int end;              // one past the last lexeme character
+   private int startLine;
+   private int startColumn;
+   private long value;           // a number's value, as raw bits for doubles
+
+   // recovery mode: errors are recorded here instead of thrown
+   private List<Diagnostic> diagnostics = null;
+   private boolean failed = false;  // the current token ended in an error
+   private List<Lexer> prefixes = null;  // recovering parts split off by splitAt
+
+   private boolean skipComments = false;  // comments produce no tokens
+
+   // instrumentation, off while stats is null
+   private LexerStats stats = null;
+   private long counted = 0;        // tokens counted so far
+   private boolean timing = false;  // the next handler call is sampled
+   private int peakLexeme = 0;      // longest lexeme reported to stats
+
+   // flight recorder events, for recordings running when the lexer
+   // was created
+   private LexSessionEvent session = null;  // the open session, if recorded
+   private boolean slowTokens = false;      // SlowTokenEvent is enabled
+   private boolean observed = false;        // stats or events are on
+   private long loaded = 0;                 // characters put in the window
+
+   private int maxLexeme = Integer.MAX_VALUE;  // longest lexeme allowed
+   private IdentifierInterner identifiers = null;  // shared ID lexemes, if any
  
    /**
     * Creates a new Lexer object out of an input stream.
     */
    public Lexer(InputStream input) {
-     buffer = new BufferedReader(new InputStreamReader(input));
+     this(new InputStreamReader(input));
+   }
+
+   /**
+    * Creates a new Lexer object out of a character reader.
+    */
+   public Lexer(Reader reader) {
+     this(reader, WINDOW_SIZE);
+   }
+
+   /**
+    * Creates a new Lexer object out of a character reader that reads
+    * up to the given number of characters at a time. The window only
+    * grows past this size to hold a longer lexeme (see bounded()).
+    */
+   public Lexer(Reader reader, int windowSize) {
+     if (windowSize < 1) {
+       throw new IllegalArgumentException("window size must be positive");
+     }
+     this.reader = reader;
+     this.window = new char[windowSize];
+     startEvents();
+   }
+
+   /**
+    * Creates a new Lexer object over a fully buffered source. The
+    * lexer scans the array in place, so it must not change while the
+    * lexer is in use. Unlike a reader-backed lexer, its stream() can
+    * be split to run in parallel.
+    * @param source The mypl program
+    * @return The new lexer.
+    */
+   public static Lexer of(char[] source) {
+     return new Lexer(source, 0, source.length);
+   }
+
+   /**
+    * Creates a new Lexer object over a fully buffered source, as for
+    * of(char[]).
+    * @param source The mypl program
+    * @return The new lexer.
+    */
+   public static Lexer of(String source) {
+     return of(source.toCharArray());
+   }
+
+   /**
+    * Creates a new Lexer object over the whole of a UTF-8 file, read
+    * into memory first, as for of(char[]).
+    * @param file The mypl program file
+    * @return The new lexer.
+    * @throws IOException If the file cannot be read
+    */
+   public static Lexer of(Path file) throws IOException {
+     return of(Files.readString(file));
+   }
+
+   /**
+    * Creates a new Lexer object over the given range of a fully
+    * buffered source. Lexemes are scanned in place, so the returned
+    * token offsets are indices into the source array.
+    */
+   Lexer(char[] source, int from, int to) {
+     this(source, from, to, 1, 0);
+   }
+
+   /**
+    * Creates a new Lexer object over the given range of a fully
+    * buffered source, starting at the given line and at the column of
+    * the character before from.
+    */
+   Lexer(char[] source, int from, int to, int line, int column) {
+     this.window = source;
+     this.pos = from;
+     this.limit = to;
+     this.line = line;
+     this.column = column;
+     this.loaded = to - from;
+     startEvents();
+   }
+
+   /**
+    * Opens the session event and checks for slow token events if a
+    * flight recording has them enabled.
+    */
+   private void startEvents() {
+     LexSessionEvent event = new LexSessionEvent();
+     if (event.isEnabled()) {
+       event.begin();
+       session = event;
+     }
+     slowTokens = new SlowTokenEvent().isEnabled();
+     observed = session != null || slowTokens;
+   }
+
+   /**
+    * Commits the session event once the lexer is done.
+    * @param error The error that stopped the lexer, or null at EOS
+    */
+   private void endSession(String error) {
+     session.end();
+     session.characters = loaded - (limit - pos);
+     session.diagnostics = diagnostics == null ? 0 : diagnostics.size();
+     session.error = error;
+     session.commit();
+     session = null;
+     observed = stats != null || slowTokens;
+   }
+
+   /**
+    * Refills the window from the reader once every buffered character
+    * has been consumed. The lexeme of a token in progress is moved to
+    * the front of the window (growing it if needed) so it stays a
+    * single slice.
+    * @return True if at least one new character is available.
+    */
+   private boolean fill() {
+     if (reader == null) {
+       return false;
+     }
+     try {
+       int keep = start < 0 ? limit : start;
+       if (start >= 0 && limit - start > maxLexeme) {
+         error(LexError.LEXEME_TOO_LONG, "lexeme longer than " + maxLexeme + " characters",
+               startLine, startColumn);
+         // recovering: the rest of the token is scanned but not kept
+         keep = limit;
+         start = 0;
+       }
+       if (keep > 0) {
+         System.arraycopy(window, keep, window, 0, limit - keep);
+         pos -= keep;
+         limit -= keep;
+         if (start >= keep) {
+           start -= keep;
+         }
+       } else if (limit == window.length) {
+         window = Arrays.copyOf(window, window.length * 2);
+       }
+       ReadStallEvent stall = new ReadStallEvent();
+       stall.begin();
+       int n = reader.read(window, limit, window.length - limit);
+       while (n == 0) {
+         n = reader.read(window, limit, window.length - limit);
+       }
+       stall.end();
+       if (stall.shouldCommit()) {
+         stall.requested = window.length - limit;
+         stall.read = Math.max(n, 0);
+         stall.commit();
+       }
+       if (n < 0) {
+         reader = null;
+         return false;
+       }
+       limit += n;
+       loaded += n;
+       if (stats != null) {
+         stats.chars(n);
+       }
+       return true;
+     } catch(IOException e) {
+       error(LexError.READ_ERROR, "read error", line, column + 1);
+       reader = null;
+     }
+     return false;
    }
  
    /**
@@ -35,13 +282,11 @@
     * @return A single character
     */
    private char read() {
-     try {
-       ++column;
-       return (char)buffer.read();
-     } catch(IOException e) {
-       error("read error", line, column + 1);
+     ++column;
+     if (pos == limit && !fill()) {
+       return EOF;
      }
-     return (char)-1;
+     return window[pos++];
    }
  
    /**
@@ -49,16 +294,10 @@
     * @return A single character
     */
    private char peek() {
-     int ch = -1;
-     try {
-       buffer.mark(1);
-       ch = (char)buffer.read();
-       buffer.reset();
-       return (char)ch;
-     } catch(IOException e) {
-       error("read error", line, column + 1);
+     if (pos == limit && !fill()) {
+       return EOF;
      }
-     return (char)-1;
+     return window[pos];
    }
  
    /**
@@ -80,6 +319,29 @@
      return false;
    }
   
+   /**
+    * Helper functions to classify a character. ASCII characters are
+    * looked up in the class table, anything else goes through the
+    * Unicode predicates.
+    * @return True if the character is in the class and false
+    * otherwise.
+    */
+   private static boolean isWhitespace(char ch) {
+     return ch < 128 ? (CHAR_CLASS[ch] & WHITESPACE) != 0 : Character.isWhitespace(ch);
+   }
+
+   private static boolean isDigit(char ch) {
+     return ch < 128 ? (CHAR_CLASS[ch] & DIGIT) != 0 : Character.isDigit(ch);
+   }
+
+   private static boolean isIdentifierStart(char ch) {
+     return ch < 128 ? (CHAR_CLASS[ch] & ID_START) != 0 : Character.isLetter(ch);
+   }
+
+   private static boolean isIdentifierPart(char ch) {
+     return ch < 128 ? (CHAR_CLASS[ch] & ID_PART) != 0 : Character.isLetterOrDigit(ch);
+   }
+
    /**
     * Helper function to check if the given character is an end of file
     * symbol.
@@ -87,15 +349,114 @@
     * false otherwise.
     */
    private boolean isEOF(char ch) {
-     return ch == (char)-1;
+     return ch == EOF;
    }
   
    /**
-    * Print an error message and exit the program.
+    * Print an error message and exit the program, or in recovery mode
+    * record it and mark the current token as failed.
     */
-   private void error(String msg, int line, int column) {
-     String s = "[%d,%d] %s";
-     MyPLException.lexerError(String.format(s, line, column, msg));
+   private void error(LexError kind, String msg, int line, int column) {
+     if (failed) {
+       return; // recovering, and only the first error of a token counts
+     }
+     if (stats != null) {
+       stats.error(kind);
+     }
+     if (diagnostics == null) {
+       if (session != null) {
+         endSession("[" + line + "," + column + "] " + msg);
+       }
+       MyPLException.lexerError(kind, msg, line, column);
+     }
+     diagnostics.add(new Diagnostic(kind, msg, line, column));
+     failed = true;
+   }
+
+   /**
+    * Switches the lexer to recovery mode. Instead of throwing on a
+    * lexical error, the lexer records a diagnostic, skips the rest of
+    * the bad token (up to the next whitespace or delimiter, or to the
+    * end of a string), and carries on with the next token. No
+    * exception is created on the error path.
+    * @return This lexer.
+    */
+   public Lexer recovering() {
+     if (diagnostics == null) {
+       diagnostics = new ArrayList<>();
+     }
+     return this;
+   }
+
+   /**
+    * Caps the length of a single lexeme so the lexer's memory stays
+    * bounded however long its input is. The window only grows to hold
+    * a lexeme longer than itself, so it never exceeds twice the larger
+    * of its initial size and the cap. A longer token is a
+    * LEXEME_TOO_LONG error; in recovery mode the rest of it is scanned
+    * without being kept. Skipped comments (see skippingComments()) are
+    * never kept and so are not limited.
+    * @param maxLexeme The most source characters a lexeme may have
+    * @return This lexer.
+    */
+   public Lexer bounded(int maxLexeme) {
+     if (maxLexeme < 1) {
+       throw new IllegalArgumentException("lexeme cap must be positive");
+     }
+     this.maxLexeme = maxLexeme;
+     return this;
+   }
+
+   /**
+    * Makes the lexer skip comments like whitespace instead of returning
+    * COMMENT tokens, so no lexeme is kept for them.
+    * @return This lexer.
+    */
+   public Lexer skippingComments() {
+     skipComments = true;
+     return this;
+   }
+
+   /**
+    * Makes the lexer take ID lexemes from the given pool, which may be
+    * shared with other lexers, so a repeated name is one String.
+    * @return This lexer.
+    */
+   public Lexer interning(IdentifierInterner identifiers) {
+     this.identifiers = identifiers;
+     return this;
+   }
+
+   /**
+    * Makes the lexer report what it does to the given stats, which
+    * may be shared with other lexers.
+    * @return This lexer.
+    */
+   public Lexer instrumented(LexerStats stats) {
+     if (this.stats == null && reader == null) {
+       stats.chars(limit - pos);
+     }
+     this.stats = stats;
+     observed = true;
+     return this;
+   }
+
+   /**
+    * Returns the errors recorded so far in recovery mode, in source
+    * order.
+    * @return The diagnostics, empty if not in recovery mode.
+    */
+   public List<Diagnostic> diagnostics() {
+     if (prefixes == null) {
+       return diagnostics == null ? List.of() : Collections.unmodifiableList(diagnostics);
+     }
+     // a parallel stream split the source: merge what each part found
+     List<Diagnostic> all = new ArrayList<>(diagnostics);
+     for (Lexer prefix : prefixes) {
+       all.addAll(prefix.diagnostics());
+     }
+     all.sort(Comparator.comparingInt(Diagnostic::line).thenComparingInt(Diagnostic::column));
+     return Collections.unmodifiableList(all);
    }
  
    /**
@@ -104,48 +465,396 @@
     */
  
     public Token nextToken() {
+        TokenType type = scan();
+        String lexeme = type == TokenType.ID && identifiers != null
+            ? identifiers.intern(window, start, end - start)
+            : lexeme(type, window, start, end - start);
+        if (type == TokenType.INT_VAL || type == TokenType.DOUBLE_VAL) {
+            return new NumberToken(type, lexeme, startLine, startColumn, value);
+        }
+        return new Token(type, lexeme, startLine, startColumn);
+    }
+
+    /**
+     * Scans the next token without creating a Token or lexeme
+     * string. The token is described by tokenType(), tokenStart(),
+     * tokenLength(), tokenLine() and tokenColumn() until the next call.
+     * @return The type of the scanned token.
+     */
+    TokenType scan() {
+        return observed ? scanObserved() : scanRecovering();
+    }
+
+    /**
+     * Scans one token, skipping failed ones in recovery mode.
+     */
+    private TokenType scanRecovering() {
+        TokenType type = scanToken();
+        while (failed) {
+            failed = false;
+            start = -1;
+            resync(diagnostics.get(diagnostics.size() - 1).kind());
+            type = scanToken();
+        }
+        return type;
+    }
+
+    /**
+     * Scans one token like scanRecovering(), reporting it to the stats
+     * and the flight recorder events that are on.
+     */
+    private TokenType scanObserved() {
+        SlowTokenEvent slow = null;
+        if (slowTokens) {
+            slow = new SlowTokenEvent();
+            slow.begin();
+        }
+        TokenType type = scanRecovering();
+        if (slow != null) {
+            slow.end();
+            if (slow.shouldCommit()) {
+                slow.tokenType = type.name();
+                slow.line = startLine;
+                slow.column = startColumn;
+                slow.length = end - start;
+                slow.commit();
+            }
+        }
+        if (stats != null) {
+            count(type);
+        }
+        if (session != null) {
+            ++session.tokens;
+            if (type == TokenType.EOS) {
+                endSession(null);
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Reports a scanned token to the stats, and decides whether the
+     * handler call of the next token is timed.
+     */
+    private void count(TokenType type) {
+        stats.token(type);
+        if (end - start > peakLexeme) {
+            peakLexeme = end - start;
+            stats.lexeme(peakLexeme);
+        }
+        timing = ++counted % LexerStats.SAMPLE_RATE == 0;
+    }
+
+    /**
+     * Skips the rest of a token that failed in recovery mode.
+     */
+    private void resync(LexError kind) {
+        if (kind == LexError.INVALID_ESCAPE) {
+            while (true) {
+                char next = peek();
+                if (isEOF(next) || next == '\n' || next == '\r') {
+                    return;
+                }
+                read();
+                if (next == '"') {
+                    return;
+                }
+                if (next == '\\' && !isEOF(peek()) && peek() != '\n' && peek() != '\r') {
+                    read();
+                }
+            }
+        }
+        if (kind == LexError.NON_TERMINATED_STRING || kind == LexError.READ_ERROR
+            || kind == LexError.LEXEME_TOO_LONG) {
+            return;
+        }
+        while (!isEOF(peek()) && !isWhitespace(peek()) && DELIMITERS.indexOf(peek()) < 0) {
+            read();
+        }
+    }
+
+    /**
+     * Scans one token, or fails in recovery mode.
+     */
+    private TokenType scanToken() {
+        start = -1;
         char ch = readAndSkipWhitespace();
-    
-        if (isEOF(ch)) {
-            return new Token(TokenType.EOS, "end-of-stream", line, column);
+        while (ch == '#' && skipComments) {
+            skipToEndOfLine();
+            ch = readAndSkipWhitespace();
         }
-    
-        int tempLine = line;
-        int tempColumn = column;
-    
-        Token twoCharToken = handleTwoCharToken(ch, tempLine, tempColumn);
-        if (twoCharToken != null) {
-            return twoCharToken;
+        startLine = line;
+        startColumn = column;
+
+        if (isEOF(ch)) {
+            start = pos;
+            end = pos;
+            return tokenType = TokenType.EOS;
         }
-    
-        Token singleCharToken = handleSingleCharToken(ch, tempLine, tempColumn);
-        if (singleCharToken != null) {
-            return singleCharToken;
+        start = pos - 1;
+        if (timing) {
+            return timedToken(ch);
         }
-    
+        return tokenType = dispatch(ch);
+    }
+
+    /**
+     * Scans the rest of a token like dispatch(), timing the handler.
+     */
+    private TokenType timedToken(char ch) {
+        long started = System.nanoTime();
+        TokenType type = dispatch(ch);
+        long nanos = System.nanoTime() - started;
+        LexerStats.Handler handler = LexerStats.Handler.SYMBOL;
         if (ch == '#') {
-            return handleComment(tempLine, tempColumn);
+            handler = LexerStats.Handler.COMMENT;
+        } else if (ch == '"') {
+            handler = LexerStats.Handler.STRING;
+        } else if (isDigit(ch)) {
+            handler = LexerStats.Handler.NUMBER;
+        } else if (isIdentifierStart(ch)) {
+            handler = LexerStats.Handler.IDENTIFIER;
         }
-    
-        if (ch == '"') {
-            return handleString(tempLine, tempColumn);
+        stats.time(handler, nanos);
+        return tokenType = type;
+    }
+
+    /**
+     * Scans the rest of a token starting with the given character
+     * with the matching handler.
+     */
+    private TokenType dispatch(char ch) {
+        TokenType type = handleTwoCharToken(ch);
+        if (type == null) {
+            type = handleSingleCharToken(ch);
         }
-    
-        if (Character.isDigit(ch)) {
-            return handleNumber(ch, tempLine, tempColumn);
+        if (type == null) {
+            if (ch == '#') {
+                type = handleComment();
+            } else if (ch == '"') {
+                type = handleString();
+            } else if (isDigit(ch)) {
+                type = handleNumber(ch);
+            } else if (isIdentifierStart(ch)) {
+                type = handleIdentifierOrKeyword();
+            } else {
+                error(LexError.UNRECOGNIZED_SYMBOL, "unrecognized symbol '" + ch + "'", startLine, startColumn);
+                type = TokenType.EOS; // Error
+            }
         }
-    
-        if (Character.isLetter(ch)) {
-            return handleIdentifierOrKeyword(ch, tempLine, tempColumn);
+        if (type != TokenType.COMMENT && type != TokenType.STRING_VAL) {
+            end = pos;
         }
-    
-        error("unrecognized symbol '" + ch + "'", tempLine, tempColumn);
-        return new Token(TokenType.EOS, "end-of-stream", line, column); // Error
+        if (end - start > maxLexeme && !failed) {
+            error(LexError.LEXEME_TOO_LONG, "lexeme longer than " + maxLexeme + " characters",
+                  startLine, startColumn);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the type of the most recently scanned token.
+     */
+    TokenType tokenType() {
+        return tokenType;
+    }
+
+    /**
+     * Returns the index in the window of the first character of the
+     * most recently scanned lexeme. Comments and strings exclude the
+     * leading '#' and the quotes, and strings are not yet unescaped.
+     */
+    int tokenStart() {
+        return start;
+    }
+
+    /**
+     * Returns the number of source characters in the most recently
+     * scanned lexeme.
+     */
+    int tokenLength() {
+        return end - start;
+    }
+
+    /**
+     * Returns the line of the most recently scanned token.
+     */
+    int tokenLine() {
+        return startLine;
+    }
+
+    /**
+     * Returns the column of the most recently scanned token.
+     */
+    int tokenColumn() {
+        return startColumn;
+    }
+
+    /**
+     * Returns the value of the most recently scanned number token: the
+     * value of an INT_VAL, or the raw bits of a DOUBLE_VAL.
+     */
+    long tokenValue() {
+        return value;
+    }
+
+    /**
+     * Returns the window the token offsets refer to.
+     */
+    char[] source() {
+        return window;
+    }
+
+    /**
+     * Returns the tokens from here on, up to and including EOS, as a
+     * sequential stream. When the source is fully buffered (see of())
+     * the stream can also be run in parallel; it is split at newlines,
+     * so a lexical error is still thrown, though tokens after it may
+     * already have been processed. In recovery mode the diagnostics of
+     * every part are still returned by diagnostics(), in source order.
+     */
+    public Stream<Token> stream() {
+        return StreamSupport.stream(new TokenSpliterator(this, true), false);
+    }
+
+    /**
+     * Returns the number of characters not yet read if the whole
+     * source is buffered, or -1 if more may come from the reader.
+     */
+    int remaining() {
+        return reader == null ? limit - pos : -1;
+    }
+
+    /**
+     * Returns the offset just after the first newline at or past the
+     * middle of the unread part of a fully buffered source, or -1 if
+     * there is none or the source is not fully buffered.
+     */
+    int splitPoint() {
+        if (reader != null) {
+            return -1;
+        }
+        for (int i = pos + (limit - pos) / 2; i < limit - 1; ++i) {
+            if (window[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits the unread source between tokens at the given offset, just
+     * after a newline. Returns a lexer for the part before the offset
+     * and moves this lexer to the offset, at the start of its line.
+     * A recovering prefix records its own diagnostics, which this
+     * lexer's diagnostics() merges in.
+     */
+    Lexer splitAt(int at) {
+        final Lexer prefix = new Lexer(window, pos, at, line, column);
+        prefix.skipComments = skipComments;
+        prefix.maxLexeme = maxLexeme;
+        prefix.identifiers = identifiers;
+        prefix.stats = stats;
+        prefix.observed |= stats != null;
+        if (diagnostics != null) {
+            prefix.diagnostics = new ArrayList<>();
+            if (prefixes == null) {
+                prefixes = new ArrayList<>();
+            }
+            prefixes.add(prefix);
+        }
+        for (int i = pos; i < at; ++i) {
+            if (window[i] == '\n' || window[i] == '\r' && window[i + 1] != '\n') {
+                ++line;
+            }
+        }
+        loaded -= at - pos;
+        pos = at;
+        column = 0;
+        return prefix;
+    }
+
+    /**
+     * Builds the lexeme string of a token from its source slice.
+     * Tokens whose lexeme never varies share a single string.
+     * @param type The token type
+     * @param src The source characters
+     * @param offset The first character of the slice
+     * @param length The number of characters in the slice
+     * @return The token's lexeme
+     */
+    static String lexeme(TokenType type, char[] src, int offset, int length) {
+        String fixed = type.fixedLexeme();
+        if (fixed != null) {
+            return fixed;
+        }
+        if (type == TokenType.BOOL_VAL) {
+            return length == 4 ? "true" : "false";
+        }
+        if (type == TokenType.STRING_VAL) {
+            return unescape(src, offset, length);
+        }
+        return new String(src, offset, length);
+    }
+
+    /**
+     * Decodes the escapes of a string slice. A string without escapes
+     * is copied in one go, and otherwise only the part from the first
+     * backslash on is decoded character by character.
+     */
+    private static String unescape(char[] src, int offset, int length) {
+        int last = offset + length;
+        int i = offset;
+        while (i < last && src[i] != '\\') {
+            ++i;
+        }
+        if (i == last) {
+            return new String(src, offset, length);
+        }
+        StringBuilder lexeme = new StringBuilder(length);
+        lexeme.append(src, offset, i - offset);
+        for (; i < last; ++i) {
+            char next = src[i];
+            if (next == '\\') {
+                switch (src[++i]) {
+                    case 'n': lexeme.append('\n'); break;
+                    case 't': lexeme.append('\t'); break;
+                    case 'r': lexeme.append('\r'); break;
+                    default: lexeme.append(src[i]); break;
+                }
+            } else {
+                lexeme.append(next);
+            }
+        }
+        return lexeme.toString();
     }
     
     private char readAndSkipWhitespace() {
+        // runs of spaces, tabs, and newlines are skipped straight off
+        // the window; anything else goes through read() below
+        while (true) {
+            int i = pos;
+            int col = column;
+            while (i < limit) {
+                char ch = window[i];
+                if (ch == ' ' || ch == '\t') {
+                    ++col;
+                } else if (ch == '\n') {
+                    ++line;
+                    col = 0;
+                } else {
+                    break;
+                }
+                ++i;
+            }
+            pos = i;
+            column = col;
+            if (i < limit || !fill()) {
+                break;
+            }
+        }
         char ch = read();
-        while (Character.isWhitespace(ch)) {
+        while (isWhitespace(ch)) {
             if (isEOL(ch)) {
                 line++;
                 column = 0;
@@ -158,182 +867,220 @@
         return ch;
     }
     
-    private Token handleTwoCharToken(char ch, int tempLine, int tempColumn) {
+    private TokenType handleTwoCharToken(char ch) {
         if (ch == '=') {
-            return handleTwoChar('=', TokenType.ASSIGN, TokenType.EQUAL, "==", tempLine, tempColumn);
+            return handleTwoChar(TokenType.ASSIGN, TokenType.EQUAL);
         } else if (ch == '!') {
             if(peek() == '='){
                 read();
-                return new Token(TokenType.NOT_EQUAL, "!=", tempLine, tempColumn);
+                return TokenType.NOT_EQUAL;
             } else {
-                error("expecting !=", tempLine, tempColumn);
-                return new Token(TokenType.EOS, "end-of-stream", line, column); //error
+                error(LexError.EXPECTING_NOT_EQUAL, "expecting !=", startLine, startColumn);
+                return TokenType.EOS; //error
             }
         } else if (ch == '<') {
-            return handleTwoChar('<', TokenType.LESS, TokenType.LESS_EQ, "<=", tempLine, tempColumn);
+            return handleTwoChar(TokenType.LESS, TokenType.LESS_EQ);
         } else if (ch == '>') {
-            return handleTwoChar('>', TokenType.GREATER, TokenType.GREATER_EQ, ">=", tempLine, tempColumn);
+            return handleTwoChar(TokenType.GREATER, TokenType.GREATER_EQ);
         }
         return null;
     }
     
-    private Token handleTwoChar(
-        char firstChar,
-        TokenType singleType,
-        TokenType doubleType,
-        String doubleLexeme,
-        int tempLine,
-        int tempColumn) {
+    private TokenType handleTwoChar(TokenType singleType, TokenType doubleType) {
         if (peek() == '=') {
             read(); // Consume the second character
-            return new Token(doubleType, doubleLexeme, tempLine, tempColumn);
+            return doubleType;
         } else {
-            return new Token(singleType, String.valueOf(firstChar), tempLine, tempColumn);
+            return singleType;
         }
     }
     
-    private Token handleSingleCharToken(char ch, int tempLine, int tempColumn) {
+    private TokenType handleSingleCharToken(char ch) {
         switch (ch) {
-            case '+': return new Token(TokenType.PLUS, "+", tempLine, tempColumn);
-            case '-': return new Token(TokenType.MINUS, "-", tempLine, tempColumn);
-            case '*': return new Token(TokenType.TIMES, "*", tempLine, tempColumn);
-            case '/': return new Token(TokenType.DIVIDE, "/", tempLine, tempColumn);
-            case '.': return new Token(TokenType.DOT, ".", tempLine, tempColumn);
-            case ':': return new Token(TokenType.COLON, ":", tempLine, tempColumn);
-            case ',': return new Token(TokenType.COMMA, ",", tempLine, tempColumn);
-            case '(': return new Token(TokenType.LPAREN, "(", tempLine, tempColumn);
-            case ')': return new Token(TokenType.RPAREN, ")", tempLine, tempColumn);
-            case '[': return new Token(TokenType.LBRACKET, "[", tempLine, tempColumn);
-            case ']': return new Token(TokenType.RBRACKET, "]", tempLine, tempColumn);
-            case '{': return new Token(TokenType.LBRACE, "{", tempLine, tempColumn);
-            case '}': return new Token(TokenType.RBRACE, "}", tempLine, tempColumn);
+            case '+': return TokenType.PLUS;
+            case '-': return TokenType.MINUS;
+            case '*': return TokenType.TIMES;
+            case '/': return TokenType.DIVIDE;
+            case '.': return TokenType.DOT;
+            case ':': return TokenType.COLON;
+            case ',': return TokenType.COMMA;
+            case '(': return TokenType.LPAREN;
+            case ')': return TokenType.RPAREN;
+            case '[': return TokenType.LBRACKET;
+            case ']': return TokenType.RBRACKET;
+            case '{': return TokenType.LBRACE;
+            case '}': return TokenType.RBRACE;
             default: return null;
         }
     }
     
-    private Token handleComment(int tempLine, int tempColumn) {
-        StringBuilder lexeme = new StringBuilder();
+    private TokenType handleComment() {
+        start = pos;
+        skipToEndOfLine();
+        end = pos;
+        return TokenType.COMMENT;
+    }
+
+    /**
+     * Moves up to the next line break or the end of the input,
+     * scanning the window directly.
+     */
+    private void skipToEndOfLine() {
         while (true) {
-            char next = peek();
-            if (isEOL(next) || isEOF(next)) {
-                break;
+            int i = pos;
+            while (i < limit && window[i] != '\n' && window[i] != '\r') {
+                ++i;
+            }
+            column += i - pos;
+            pos = i;
+            if (i < limit || !fill()) {
+                return;
             }
-            lexeme.append(read());
         }
-        return new Token(TokenType.COMMENT, lexeme.toString(), tempLine, tempColumn);
     }
-    private Token handleString(int tempLine, int tempColumn) {
-        StringBuilder lexeme = new StringBuilder();
-        boolean escape = false;
+
+    private TokenType handleString() {
+        start = pos;
         while (true) {
+            // skip ordinary characters without going through read()
+            int i = pos;
+            while (i < limit) {
+                char ch = window[i];
+                if (ch == '"' || ch == '\\' || ch == '\n' || ch == '\r') {
+                    break;
+                }
+                ++i;
+            }
+            column += i - pos;
+            pos = i;
+
             char next = read();
             if (isEOF(next)) {
-                error("non-terminated string", tempLine, tempColumn);
-                return new Token(TokenType.EOS, "end-of-stream", line, column); // Error
+                error(LexError.NON_TERMINATED_STRING, "non-terminated string", startLine, startColumn);
+                return TokenType.EOS; // Error
+            }
+            if (next == '"') {
+                break;
             }
-            if (escape) {
+            if (next == '\\') {
+                next = read();
+                if (isEOF(next)) {
+                    error(LexError.NON_TERMINATED_STRING, "non-terminated string", startLine, startColumn);
+                    return TokenType.EOS; // Error
+                }
                 switch (next) {
-                    case 'n': lexeme.append('\n'); break;
-                    case 't': lexeme.append('\t'); break;
-                    case 'r': lexeme.append('\r'); break;
-                    case '"': lexeme.append('"'); break;
-                    case '\\': lexeme.append('\\'); break;
+                    case 'n': case 't': case 'r': case '"': case '\\': break;
                     default:
-                        error("Invalid escape sequence: \\" + next, tempLine, tempColumn);
-                        return new Token(TokenType.EOS, "end-of-stream", line, column); // Error
-                }
-                escape = false;
-            } else {
-                if (next == '\\') {
-                    escape = true;
-                } else if (next == '"') {
-                    break;
-                } else if (isEOL(next)) {
-                    error("non-terminated string", line, column);
-                    return new Token(TokenType.EOS, "end-of-stream", line, column); // Error
-                } else {
-                    lexeme.append(next);
+                        error(LexError.INVALID_ESCAPE, "Invalid escape sequence: \\" + next, startLine, startColumn);
+                        return TokenType.EOS; // Error
                 }
+            } else if (isEOL(next)) {
+                error(LexError.NON_TERMINATED_STRING, "non-terminated string", line, column);
+                line++; // recovering, and the line break is consumed
+                column = 0;
+                return TokenType.EOS; // Error
             }
         }
-        return new Token(TokenType.STRING_VAL, lexeme.toString(), tempLine, tempColumn);
+        end = pos - 1;
+        return TokenType.STRING_VAL;
     }
     
-    private Token handleNumber(char ch, int tempLine, int tempColumn) {
-        StringBuilder lexeme = new StringBuilder();
-        lexeme.append(ch);
-        boolean isDouble = false;
-    
-        while (Character.isDigit(peek())) {
-            lexeme.append(read());
+    private TokenType handleNumber(char ch) {
+        // the digits are accumulated as they are read; overflow is only
+        // checked for, since a long holds any 18 digits
+        long mantissa = digit(ch);
+        boolean overflow = false;
+        while (isDigit(peek())) {
+            int d = digit(read());
+            overflow |= mantissa > MAX_MANTISSA || mantissa == MAX_MANTISSA && d > 7;
+            mantissa = mantissa * 10 + d;
         }
     
         // leading zeros
-        if (lexeme.length() > 1 && lexeme.charAt(0) == '0' && !isDouble && peek() != '.') {
-            error("leading zero in number", tempLine, tempColumn);
-            return new Token(TokenType.EOS, "end-of-stream", line, column); // Error
+        if (pos - start > 1 && ch == '0' && peek() != '.') {
+            error(LexError.LEADING_ZERO, "leading zero in number", startLine, startColumn);
+            return TokenType.EOS; // Error
         }
     
-    
         if (peek() == '.') {
-            lexeme.append(read());
-            isDouble = true;
+            read();
     
-            if (!Character.isDigit(peek())) {
-                error("missing digit after decimal", tempLine, column + 1);
-                return new Token(TokenType.EOS, "end-of-stream", line, column);
+            if (!isDigit(peek())) {
+                error(LexError.MISSING_DECIMAL_DIGIT, "missing digit after decimal", startLine, column + 1);
+                return TokenType.EOS;
             }
     
-            while (Character.isDigit(peek())) {
-                lexeme.append(read());
+            int scale = 0;
+            while (isDigit(peek())) {
+                int d = digit(read());
+                overflow |= mantissa > MAX_MANTISSA || mantissa == MAX_MANTISSA && d > 7;
+                mantissa = mantissa * 10 + d;
+                ++scale;
+            }
+            double value = 0;
+            if (!overflow && mantissa < 1L << 53 && scale < POWERS_OF_TEN.length) {
+                // both operands are exact, so the quotient is correctly
+                // rounded, just as parsing would be
+                value = mantissa / POWERS_OF_TEN[scale];
+            } else {
+                value = parseDouble(window, start, pos - start);
+            }
+            if (Double.isInfinite(value)) {
+                error(LexError.NUMBER_OUT_OF_RANGE, "double literal out of range", startLine, startColumn);
+                return TokenType.EOS;
             }
+            this.value = Double.doubleToRawLongBits(value);
+            return TokenType.DOUBLE_VAL;
         }
     
-        if (isDouble) {
-            return new Token(TokenType.DOUBLE_VAL, lexeme.toString(), tempLine, tempColumn);
-        } else {
-            return new Token(TokenType.INT_VAL, lexeme.toString(), tempLine, tempColumn);
+        if (overflow) {
+            error(LexError.NUMBER_OUT_OF_RANGE, "integer literal out of range", startLine, startColumn);
+            return TokenType.EOS;
         }
+        this.value = mantissa;
+        return TokenType.INT_VAL;
     }
-    
-    private Token handleIdentifierOrKeyword(char ch, int tempLine, int tempColumn) {
-        StringBuilder lexeme = new StringBuilder();
-        lexeme.append(ch);
-    
-        while (Character.isLetterOrDigit(peek()) || peek() == '_') {
-            lexeme.append(read());
+
+    /**
+     * Returns the value of a decimal digit.
+     */
+    private static int digit(char ch) {
+        return ch < 128 ? ch - '0' : Character.digit(ch, 10);
+    }
+
+    /**
+     * Returns the value of a number token from its source slice.
+     * INT_VAL values are returned as is and DOUBLE_VAL values as their
+     * raw bits. The token must have been lexed without error.
+     */
+    static long numberValue(TokenType type, char[] src, int offset, int length) {
+        if (type == TokenType.DOUBLE_VAL) {
+            return Double.doubleToRawLongBits(parseDouble(src, offset, length));
         }
-    
-        String lexemeStr = lexeme.toString();
-        TokenType type = getKeywordTokenType(lexemeStr);
-    
-        return new Token(type, lexemeStr, tempLine, tempColumn);
+        long value = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            value = value * 10 + digit(src[i]);
+        }
+        return value;
+    }
+
+    /**
+     * Parses a double slice, which may use non-ASCII digits.
+     */
+    private static double parseDouble(char[] src, int offset, int length) {
+        char[] ascii = new char[length];
+        for (int i = 0; i < length; ++i) {
+            char ch = src[offset + i];
+            ascii[i] = ch == '.' ? '.' : (char)('0' + digit(ch));
+        }
+        return Double.parseDouble(new String(ascii));
     }
     
-    private TokenType getKeywordTokenType(String lexeme) {
-        switch (lexeme) {
-            case "and":     return TokenType.AND;
-            case "or":      return TokenType.OR;
-            case "not":     return TokenType.NOT;
-            case "struct":  return TokenType.STRUCT;
-            case "var":     return TokenType.VAR;
-            case "if":      return TokenType.IF;
-            case "else":    return TokenType.ELSE;
-            case "while":   return TokenType.WHILE;
-            case "for":     return TokenType.FOR;
-            case "from":    return TokenType.FROM;
-            case "to":      return TokenType.TO;
-            case "new":     return TokenType.NEW;
-            case "true":    return TokenType.BOOL_VAL;
-            case "false":   return TokenType.BOOL_VAL;
-            case "null":    return TokenType.NULL_VAL;
-            case "void":    return TokenType.VOID_TYPE;
-            case "int":     return TokenType.INT_TYPE;
-            case "double":  return TokenType.DOUBLE_TYPE;
-            case "bool":    return TokenType.BOOL_TYPE;
-            case "string":  return TokenType.STRING_TYPE;
-            case "return": return TokenType.RETURN;
-            default:        return TokenType.ID;
+    private TokenType handleIdentifierOrKeyword() {
+        while (isIdentifierPart(peek())) {
+            read();
         }
+    
+        return Keywords.lookup(window, start, pos - start);
     }
  }
\ No newline at end of file
@@ -0,0 +1,289 @@
+/**
+ * CPSC 326, Spring 2025
+ * Push-based token streaming.
+ */
+
+package cpsc326;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+
+/**
+ * A LexerPublisher pushes the tokens of a TokenSource, one at a time
+ * or in batches, to a single Flow.Subscriber. Lexing starts when the
+ * subscriber subscribes and runs as one task on the given executor,
+ * while items are delivered in order on a virtual thread that keeps
+ * running as long as the subscriber has outstanding demand. The lexer
+ * runs ahead of the subscriber's demand by at most
+ * Flow.defaultBufferSize() items and then waits, so reading, lexing,
+ * and downstream work overlap without unbounded buffering. The stream
+ * completes after EOS, or fails with the MyPLException of a lexical
+ * error once every item before it has been delivered.
+ * @param <T> The item type, Token or TokenBatch
+ */
+public final class LexerPublisher<T> implements Flow.Publisher<T> {
+
+  private final Executor executor;             // runs the lexing task
+  private final Supplier<T> next;              // lexes the next item
+  private final Predicate<T> last;             // checks for the final item
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  private LexerPublisher(Executor executor, Supplier<T> next, Predicate<T> last) {
+    this.executor = executor;
+    this.next = next;
+    this.last = last;
+  }
+
+  /**
+   * Creates a publisher of the lexer's tokens, up to and including
+   * EOS.
+   * @param lexer The token source, which the publisher takes over
+   * @param executor The executor to lex on; the task blocks while the
+   * subscriber is behind
+   */
+  public static LexerPublisher<Token> tokens(TokenSource lexer, Executor executor) {
+    return new LexerPublisher<>(executor, lexer::nextToken, t -> t.tokenType == TokenType.EOS);
+  }
+
+  /**
+   * Creates a publisher of the lexer's tokens in batches of the given
+   * size. The last batch may be shorter and ends with EOS; on an error
+   * the tokens before it are published as a short batch first.
+   * @param lexer The token source, which the publisher takes over
+   * @param batchSize The number of tokens per batch
+   * @param executor The executor to lex on, as for tokens()
+   */
+  public static LexerPublisher<TokenBatch> batches(TokenSource lexer, int batchSize, Executor executor) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batch size must be positive");
+    }
+    return new LexerPublisher<>(executor, new BatchReader(lexer, batchSize), TokenBatch::isLast);
+  }
+
+  /**
+   * Subscribes the given subscriber and starts lexing. Only one
+   * subscriber is allowed; later ones fail with an
+   * IllegalStateException.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("already subscribed"));
+      return;
+    }
+    Subscription subscription = new Subscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    executor.execute(subscription::produce);
+  }
+
+  /**
+   * The subscription of the one subscriber. The lexing task fills a
+   * bounded queue and the drain loop empties it as demand allows. At
+   * most one drain loop runs at a time (wip counts the requests to
+   * run it), so items are delivered in order. While there is demand
+   * the loop waits on the queue for the next item rather than exiting,
+   * so a subscriber that keeps up is served by a single thread.
+   */
+  private class Subscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super T> subscriber;
+    private final BlockingQueue<T> queue = new ArrayBlockingQueue<>(Flow.defaultBufferSize());
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Object lock = new Object();      // wakes a waiting drain loop
+    private volatile boolean done = false;         // no more items will be queued
+    private volatile boolean cancelled = false;
+    private volatile Throwable error = null;       // the lexer error, once done
+    private volatile Throwable invalid = null;     // a bad request() argument
+
+    Subscription(Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalid = new IllegalArgumentException("non-positive request " + n);
+        signal();
+      } else {
+        requested.getAndAccumulate(n, (r, m) -> r + m < 0 ? Long.MAX_VALUE : r + m);
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      signal();
+      drain();
+    }
+
+    /**
+     * Lexes items into the queue until the stream ends, an error
+     * occurs, or the subscriber cancels. Any throwable, including an
+     * Error from the lexer, ends the stream with onError.
+     */
+    void produce() {
+      try {
+        T item = null;
+        do {
+          item = next.get();
+          queue.put(item);
+          signal();
+        } while (!last.test(item) && !cancelled);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        error = e;
+      } catch (Throwable e) {
+        error = e;
+      } finally {
+        done = true;
+        signal();
+        drain();
+      }
+    }
+
+    /**
+     * Wakes the drain loop if it is waiting for an item.
+     */
+    private void signal() {
+      synchronized (lock) {
+        lock.notifyAll();
+      }
+    }
+
+    /**
+     * Waits until an item is queued, lexing is done, or the stream is
+     * cancelled or given a bad request.
+     */
+    private void awaitItem() {
+      synchronized (lock) {
+        while (queue.isEmpty() && !done && !cancelled && invalid == null) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled = true;
+          }
+        }
+      }
+    }
+
+    /**
+     * Runs the drain loop on a virtual thread unless it is running.
+     */
+    private void drain() {
+      if (wip.getAndIncrement() == 0) {
+        Thread.startVirtualThread(this::drainLoop);
+      }
+    }
+
+    /**
+     * Delivers queued items while there is demand, waiting for the
+     * lexer when the queue runs dry, then the terminal signal once the
+     * queue is empty. Exits when demand is used up; request() starts
+     * it again.
+     */
+    private void drainLoop() {
+      int missed = 1;
+      do {
+        long delivered = 0;
+        long demand = requested.get();
+        while (true) {
+          if (cancelled) {
+            queue.clear();
+            return;
+          }
+          if (invalid != null) {
+            cancelled = true;
+            queue.clear();
+            subscriber.onError(invalid);
+            return;
+          }
+          boolean finished = done;
+          if (queue.isEmpty() && finished) {
+            cancelled = true;
+            if (error != null) {
+              subscriber.onError(error);
+            } else {
+              subscriber.onComplete();
+            }
+            return;
+          }
+          if (delivered == demand) {
+            break;
+          }
+          if (queue.isEmpty()) {
+            awaitItem();
+            continue;
+          }
+          subscriber.onNext(queue.poll());
+          ++delivered;
+        }
+        if (delivered != 0 && demand != Long.MAX_VALUE) {
+          requested.addAndGet(-delivered);
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+  }
+
+  /**
+   * Reads batches of tokens, holding back an error until the tokens
+   * before it have been returned.
+   */
+  private static class BatchReader implements Supplier<TokenBatch> {
+
+    private final TokenSource lexer;
+    private final int batchSize;
+    private MyPLException error = null;
+
+    BatchReader(TokenSource lexer, int batchSize) {
+      this.lexer = lexer;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public TokenBatch get() {
+      if (error != null) {
+        throw error;
+      }
+      List<Token> tokens = new ArrayList<>(batchSize);
+      try {
+        Token t = null;
+        do {
+          t = lexer.nextToken();
+          tokens.add(t);
+        } while (tokens.size() < batchSize && t.tokenType != TokenType.EOS);
+      } catch (MyPLException e) {
+        if (tokens.isEmpty()) {
+          throw e;
+        }
+        error = e;
+      }
+      return new TokenBatch(tokens);
+    }
+
+  }
+
+}
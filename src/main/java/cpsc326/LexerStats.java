@@ -0,0 +1,214 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexer instrumentation.
+ */
+
+package cpsc326;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+
+/**
+ * A LexerStats collects counters from any number of lexers, which may
+ * run on different threads: tokens per type, characters scanned, time
+ * spent in each token handler, the peak lexeme length, and errors per
+ * kind. Instrumentation is opt-in (see Lexer.instrumented()); a lexer
+ * without stats only pays a null check per token. Handler times are
+ * measured for one token in SAMPLE_RATE and scaled up, so the clock is
+ * rarely read.
+ */
+public final class LexerStats implements LexerStatsMXBean {
+
+  /** One token in this many is timed. */
+  public static final int SAMPLE_RATE = 64;
+
+  /**
+   * The token handlers the lexer dispatches to.
+   */
+  public enum Handler {
+    SYMBOL, COMMENT, STRING, NUMBER, IDENTIFIER
+  }
+
+  private static final TokenType[] TYPES = TokenType.values();
+  private static final Handler[] HANDLERS = Handler.values();
+  private static final LexError[] KINDS = LexError.values();
+
+  private final LongAdder[] tokens = adders(TYPES.length);
+  private final LongAdder chars = new LongAdder();
+  private final LongAdder[] handlerNanos = adders(HANDLERS.length);
+  private final LongAdder[] handlerSamples = adders(HANDLERS.length);
+  private final LongAccumulator peakLexeme = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] errors = adders(KINDS.length);
+
+  private static LongAdder[] adders(int n) {
+    LongAdder[] adders = new LongAdder[n];
+    for (int i = 0; i < n; ++i) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
+  /**
+   * Counts a lexed token.
+   */
+  void token(TokenType type) {
+    tokens[type.ordinal()].increment();
+  }
+
+  /**
+   * Counts characters read by a lexer.
+   */
+  void chars(long n) {
+    chars.add(n);
+  }
+
+  /**
+   * Records the time one sampled call of a handler took.
+   */
+  void time(Handler handler, long nanos) {
+    handlerNanos[handler.ordinal()].add(nanos);
+    handlerSamples[handler.ordinal()].increment();
+  }
+
+  /**
+   * Records a lexeme length; only new peaks of a lexer are reported.
+   */
+  void lexeme(long length) {
+    peakLexeme.accumulate(length);
+  }
+
+  /**
+   * Counts a lexical error.
+   */
+  void error(LexError kind) {
+    errors[kind.ordinal()].increment();
+  }
+
+  /**
+   * Returns the number of tokens of the given type.
+   */
+  public long tokens(TokenType type) {
+    return tokens[type.ordinal()].sum();
+  }
+
+  /**
+   * Returns the number of errors of the given kind.
+   */
+  public long errors(LexError kind) {
+    return errors[kind.ordinal()].sum();
+  }
+
+  /**
+   * Returns the number of timed calls of the given handler.
+   */
+  public long samples(Handler handler) {
+    return handlerSamples[handler.ordinal()].sum();
+  }
+
+  /**
+   * Returns the estimated total time spent in the given handler, in
+   * nanoseconds.
+   */
+  public long estimatedNanos(Handler handler) {
+    return handlerNanos[handler.ordinal()].sum() * SAMPLE_RATE;
+  }
+
+  @Override
+  public Map<String, Long> getTokenCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (TokenType type : TYPES) {
+      long n = tokens(type);
+      if (n != 0) {
+        counts.put(type.name(), n);
+      }
+    }
+    return counts;
+  }
+
+  @Override
+  public long getTotalTokens() {
+    long total = 0;
+    for (LongAdder n : tokens) {
+      total += n.sum();
+    }
+    return total;
+  }
+
+  @Override
+  public long getCharactersScanned() {
+    return chars.sum();
+  }
+
+  @Override
+  public Map<String, Long> getEstimatedHandlerNanos() {
+    Map<String, Long> nanos = new LinkedHashMap<>();
+    for (Handler handler : HANDLERS) {
+      nanos.put(handler.name(), estimatedNanos(handler));
+    }
+    return nanos;
+  }
+
+  @Override
+  public long getPeakLexemeLength() {
+    return peakLexeme.get();
+  }
+
+  @Override
+  public Map<String, Long> getErrorCounts() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (LexError kind : KINDS) {
+      long n = errors(kind);
+      if (n != 0) {
+        counts.put(kind.name(), n);
+      }
+    }
+    return counts;
+  }
+
+  @Override
+  public void reset() {
+    for (LongAdder[] group : new LongAdder[][] {tokens, handlerNanos, handlerSamples, errors}) {
+      for (LongAdder n : group) {
+        n.reset();
+      }
+    }
+    chars.reset();
+    peakLexeme.reset();
+  }
+
+  /**
+   * Registers these stats with the platform MBean server under
+   * cpsc326:type=LexerStats,name=the given name.
+   * @return The name the stats are registered under
+   * @throws JMException If the name is taken or invalid
+   */
+  public ObjectName register(String name) throws JMException {
+    ObjectName objectName = new ObjectName("cpsc326:type=LexerStats,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+
+  /**
+   * Prints a summary of the stats, one statistic per line.
+   */
+  public void print(PrintStream out) {
+    out.printf("mypl: %d tokens, %d characters, peak lexeme %d%n",
+               getTotalTokens(), getCharactersScanned(), getPeakLexemeLength());
+    getTokenCounts().forEach((type, n) -> out.printf("mypl:   %-12s %10d%n", type, n));
+    for (Handler handler : HANDLERS) {
+      if (samples(handler) != 0) {
+        out.printf("mypl:   %-12s ~%8.3f ms (%d samples)%n", handler.name().toLowerCase(),
+                   estimatedNanos(handler) / 1e6, samples(handler));
+      }
+    }
+    getErrorCounts().forEach((kind, n) -> out.printf("mypl:   %-12s %10d%n", kind, n));
+  }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * CPSC 326, Spring 2025
+ * JMX view of lexer statistics.
+ */
+
+package cpsc326;
+
+import java.util.Map;
+
+
+/**
+ * The management interface of LexerStats, so a long-running process
+ * can be watched with jconsole or any other JMX client.
+ */
+public interface LexerStatsMXBean {
+
+  /**
+   * Returns the number of tokens lexed per token type.
+   */
+  Map<String, Long> getTokenCounts();
+
+  /**
+   * Returns the total number of tokens lexed.
+   */
+  long getTotalTokens();
+
+  /**
+   * Returns the number of source characters read by the lexers.
+   */
+  long getCharactersScanned();
+
+  /**
+   * Returns the estimated time spent in each kind of token handler,
+   * in nanoseconds, extrapolated from the sampled tokens.
+   */
+  Map<String, Long> getEstimatedHandlerNanos();
+
+  /**
+   * Returns the length of the longest lexeme seen.
+   */
+  long getPeakLexemeLength();
+
+  /**
+   * Returns the number of lexical errors per kind.
+   */
+  Map<String, Long> getErrorCounts();
+
+  /**
+   * Sets every statistic back to zero.
+   */
+  void reset();
+
+}
@@ -0,0 +1,160 @@
+/**
+ * CPSC 326, Spring 2025
+ * Memory-mapped reader for mypl source files.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * A MappedFileReader reads a UTF-8 source file through a memory
+ * mapping instead of a FileInputStream. ASCII bytes are widened
+ * straight into the caller's buffer; the UTF-8 decoder only runs over
+ * runs of bytes at or above 0x80. Malformed input is replaced the same
+ * way an InputStreamReader replaces it.
+ */
+public class MappedFileReader extends Reader {
+
+  private static final long REGION_SIZE = 1L << 28;
+
+  private final FileChannel channel;
+  private final long size;
+  private final long regionSize;
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private long regionStart;          // file offset of the current region
+  private MappedByteBuffer region;   // the currently mapped region
+  private int pending = -1;          // low surrogate left over from a short read
+
+  /**
+   * Creates a new reader that maps the given file.
+   * @param path The file to read
+   * @throws IOException If the file cannot be opened or mapped
+   */
+  public MappedFileReader(Path path) throws IOException {
+    this(path, REGION_SIZE);
+  }
+
+  /**
+   * Creates a new reader that maps the given file in regions of at
+   * most the given number of bytes.
+   */
+  MappedFileReader(Path path, long regionSize) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.regionSize = regionSize;
+    map(0);
+  }
+
+  /**
+   * Maps the region of the file starting at the given offset.
+   */
+  private void map(long start) throws IOException {
+    regionStart = start;
+    region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+  }
+
+  @Override
+  public int read(char[] cbuf, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    int n = 0;
+    if (pending >= 0) {
+      cbuf[off] = (char)pending;
+      pending = -1;
+      ++n;
+    }
+    while (n < len) {
+      if (!region.hasRemaining()) {
+        long next = regionStart + region.position();
+        if (next >= size) {
+          break;
+        }
+        map(next);
+      }
+      // ASCII fast path
+      int p = region.position();
+      int end = Math.min(region.limit(), p + len - n);
+      while (p < end) {
+        byte b = region.get(p);
+        if (b < 0) {
+          break;
+        }
+        cbuf[off + n++] = (char)b;
+        ++p;
+      }
+      region.position(p);
+      if (p < end) {
+        int m = decode(cbuf, off + n, len - n);
+        if (m < 0) {
+          break;
+        }
+        n += m;
+      }
+    }
+    if (n == 0 && region.hasRemaining()) {
+      // a surrogate pair does not fit into a single char of room
+      char[] pair = new char[2];
+      int m = decode(pair, 0, 2);
+      cbuf[off] = pair[0];
+      pending = m > 1 ? pair[1] : -1;
+      return 1;
+    }
+    return n == 0 ? -1 : n;
+  }
+
+  /**
+   * Decodes the run of non-ASCII bytes at the current position into
+   * the given part of the output buffer.
+   * @return The number of characters decoded, or -1 if the next
+   * character does not fit
+   */
+  private int decode(char[] cbuf, int off, int len) throws IOException {
+    int start = region.position();
+    int lim = region.limit();
+    int runEnd = start;
+    while (runEnd < lim && region.get(runEnd) < 0) {
+      ++runEnd;
+    }
+    // a run that stops at an ASCII byte or at the end of the file
+    // cannot continue into the next region
+    boolean complete = runEnd < lim || regionStart + lim == size;
+    ByteBuffer in = region.duplicate().position(start).limit(runEnd);
+    CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+    CoderResult result = decoder.decode(in, out, complete);
+    region.position(in.position());
+    if (complete && !in.hasRemaining()) {
+      decoder.reset();
+    }
+    int m = out.position() - off;
+    if (m == 0 && result.isOverflow()) {
+      return -1;
+    }
+    if (m == 0 && in.position() == start) {
+      // a multi-byte sequence straddles the region boundary
+      map(regionStart + start);
+    }
+    return m;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+}
@@ -6,11 +6,23 @@
 package cpsc326;
 
 import java.io.InputStream;
+import java.io.FileDescriptor;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import javax.management.JMException;
 import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.MutuallyExclusiveGroup;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 
@@ -22,18 +34,202 @@ public class MyPL {
 
   /**
    * Print token information for the given mypl program.
-   * @param input The mypl program as an input stream
+   * @param input The mypl program as a character reader
+   * @param options The LEX mode command line options
+   */
+  private static void lexMode(Reader input, Namespace options) {
+    TokenWriter out = tokenWriter(options.getString("format"));
+    LexerStats stats = options.getBoolean("stats") ? new LexerStats() : null;
+    try {
+      try {
+        boolean skipComments = options.getBoolean("skip_comments");
+        // --parallel reads the whole input, so the streaming options win
+        Integer window = options.getInt("window");
+        boolean streaming = options.getBoolean("recover") || options.getInt("max_lexeme") != null || window != null;
+        if (options.getBoolean("parallel") && !streaming) {
+          lexParallel(input, out, skipComments);
+          out.flush();
+        } else {
+          Lexer lexer = window == null ? new Lexer(input) : new Lexer(input, window);
+          if (options.getBoolean("recover")) {
+            lexer.recovering();
+          }
+          if (skipComments) {
+            lexer.skippingComments();
+          }
+          if (options.getInt("max_lexeme") != null) {
+            lexer.bounded(options.getInt("max_lexeme"));
+          }
+          if (stats != null) {
+            lexer.instrumented(stats);
+          }
+          lex(lexer, out);
+          out.flush();
+          for (Diagnostic d : lexer.diagnostics()) {
+            System.err.println(d);
+          }
+        }
+      } catch(MyPLException e) {
+        out.writeError(e);
+        out.flush();
+        System.err.println(e.getMessage());
+      } finally {
+        if (stats != null) {
+          stats.print(System.err);
+        }
+      }
+    } catch (IOException e) {
+      System.err.println("mypl: error: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Write every token read by the given lexer.
+   */
+  private static void lex(Lexer lexer, TokenWriter out) throws IOException {
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      out.write(t);
+    } while (t.tokenType != TokenType.EOS);
+  }
+
+  /**
+   * Lex the whole input in parallel chunks and write every token,
+   * optionally leaving out comments. On an error the tokens before it
+   * are written first.
+   */
+  private static void lexParallel(Reader input, TokenWriter out, boolean skipComments) throws IOException {
+    TokenBuffer tokens = null;
+    try {
+      tokens = new TokenBuffer(TokenBuffer.readAll(input), 0);
+    } catch (IOException e) {
+      MyPLException.lexerError(LexError.READ_ERROR, "read error", 1, 1);
+    }
+    try {
+      ParallelLexer.lex(tokens);
+    } finally {
+      for (int i = 0; i < tokens.size(); ++i) {
+        if (!skipComments || tokens.type(i) != TokenType.COMMENT) {
+          out.write(tokens.token(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the writer for the given LEX output format. Both write
+   * straight to the standard output file descriptor in large blocks.
+   */
+  private static TokenWriter tokenWriter(String format) {
+    OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+    if ("BINARY".equals(format)) {
+      return new BinaryTokenWriter(stdout);
+    }
+    return new TokenTextWriter(stdout, System.out.charset());
+  }
+
+  /**
+   * Print token information for each of the given files into its own
+   * .out file, lexing several files at once.
+   * @param args The files, directories, and globs to lex
+   * @param options The LEX mode command line options
+   */
+  private static void batchMode(List<String> args, Namespace options) {
+    List<Path> files = null;
+    try {
+      files = BatchLexer.expand(args);
+    } catch (IOException e) {
+      System.err.println("mypl: error: " + e.getMessage());
+      System.exit(1);
+    }
+    String outDir = options.getString("out_dir");
+    LexerStats stats = options.getBoolean("stats") ? new LexerStats() : null;
+    BatchLexer batch = new BatchLexer(options.getInt("jobs"), outDir == null ? null : Path.of(outDir),
+                                      System.err, stats);
+    if (options.getBoolean("intern")) {
+      batch.interning(new IdentifierInterner());
+    }
+    if ("BINARY".equals(options.getString("format"))) {
+      batch.binary();
+    }
+    if (options.getBoolean("recover")) {
+      batch.recovering();
+    }
+    if (options.getBoolean("skip_comments")) {
+      batch.skippingComments();
+    }
+    if (options.getInt("max_lexeme") != null) {
+      batch.bounded(options.getInt("max_lexeme"));
+    }
+    if (options.getInt("window") != null) {
+      batch.windowed(options.getInt("window"));
+    }
+    if (options.getBoolean("mmap")) {
+      batch.mapped();
+    }
+    if (options.getBoolean("parallel")) {
+      batch.parallel();
+    }
+    int failed = batch.run(files);
+    if (stats != null) {
+      stats.print(System.err);
+    }
+    if (failed > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Serve lex requests until the process is stopped.
+   * @param socket The Unix domain socket file, or null to use TCP
+   * @param port The localhost TCP port
+   * @param stats Whether to collect stats and publish them over JMX
    */
-  private static void lexMode(InputStream input) {
+  private static void serverMode(String socket, int port, boolean stats) {
     try {
-      Lexer lexer = new Lexer(input);
-      Token t = null;
-      do {
-        t = lexer.nextToken();
-        System.out.println(t);
-      } while (t.tokenType != TokenType.EOS);
-    } catch(MyPLException e) {
-      System.err.println(e.getMessage());
+      LexerStats serverStats = null;
+      if (stats) {
+        serverStats = new LexerStats();
+        System.err.println("mypl: stats at " + serverStats.register("server"));
+      }
+      LexServer server = socket != null ? LexServer.unix(Path.of(socket)) : LexServer.tcp(port);
+      if (serverStats != null) {
+        server.instrumented(serverStats);
+      }
+      System.err.println("mypl: listening on " + server.address());
+      serveUntilStopped(server);
+    } catch (IOException | JMException e) {
+      System.err.println("mypl: error: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Serve on the given server until it fails or the process is
+   * stopped, then close it. The shutdown hook only interrupts this
+   * thread, which closes the server's channel and ends serve(), and
+   * waits for the server to be closed here.
+   */
+  private static void serveUntilStopped(LexServer server) throws IOException {
+    Thread serving = Thread.currentThread();
+    CountDownLatch closed = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      serving.interrupt();
+      try {
+        closed.await();
+      } catch (InterruptedException e) {
+        // exiting anyway
+      }
+    }));
+    try {
+      server.serve(System.err);
+    } finally {
+      try {
+        server.close();
+      } finally {
+        closed.countDown();
+      }
     }
   }
 
@@ -104,7 +300,59 @@ public class MyPL {
       .choices("LEX", "PARSE", "PRINT", "CHECK", "IR", "RUN", "DEBUG")
       .setDefault("RUN")
       .help("specify execution mode");
-    cmdParser.addArgument("file").nargs("?").help("mypl file to execute");
+    cmdParser.addArgument("--mmap")
+      .action(Arguments.storeTrue())
+      .help("memory-map the input file (LEX mode)");
+    cmdParser.addArgument("--format")
+      .choices("TEXT", "BINARY")
+      .setDefault("TEXT")
+      .help("token output format (LEX mode)");
+    cmdParser.addArgument("--recover")
+      .action(Arguments.storeTrue())
+      .help("report every lexical error and keep going (LEX mode)");
+    cmdParser.addArgument("--skip-comments")
+      .action(Arguments.storeTrue())
+      .help("leave comments out of the token output (LEX mode)");
+    cmdParser.addArgument("--max-lexeme")
+      .type(Integer.class)
+      .choices(Arguments.range(1, Integer.MAX_VALUE))
+      .metavar("N")
+      .help("fail on lexemes longer than this many characters, keeping memory bounded (LEX mode)");
+    cmdParser.addArgument("--window")
+      .type(Integer.class)
+      .choices(Arguments.range(1, Integer.MAX_VALUE))
+      .metavar("N")
+      .help("number of characters to read at a time (LEX mode)");
+    cmdParser.addArgument("--intern")
+      .action(Arguments.storeTrue())
+      .help("share one copy of each identifier across files (LEX mode, several files)");
+    // the parallel lexer is not instrumented
+    MutuallyExclusiveGroup statsOrParallel = cmdParser.addMutuallyExclusiveGroup();
+    statsOrParallel.addArgument("--stats")
+      .action(Arguments.storeTrue())
+      .help("print lexer statistics to stderr (LEX mode), or publish them over JMX (--server)");
+    statsOrParallel.addArgument("--parallel")
+      .action(Arguments.storeTrue())
+      .help("lex the whole input in parallel chunks (LEX mode)");
+    cmdParser.addArgument("-j", "--jobs")
+      .type(Integer.class)
+      .setDefault(Runtime.getRuntime().availableProcessors())
+      .help("number of files to lex at once (LEX mode, several files)");
+    cmdParser.addArgument("--out-dir")
+      .help("directory for the .out files (LEX mode, several files)");
+    cmdParser.addArgument("--server")
+      .action(Arguments.storeTrue())
+      .help("run as a lexer daemon on --socket or --port");
+    cmdParser.addArgument("--port")
+      .type(Integer.class)
+      .choices(Arguments.range(0, 65535))
+      .metavar("PORT")
+      .setDefault(0)
+      .help("localhost TCP port for --server (0 for any free port)");
+    cmdParser.addArgument("--socket")
+      .help("Unix domain socket file for --server");
+    cmdParser.addArgument("file").nargs("*")
+      .help("mypl file to execute, or files, directories, and globs to lex");
     // validate the command line arguments
     Namespace ns = null;
     try {
@@ -113,9 +361,34 @@ public class MyPL {
       cmdParser.handleError(e);
       System.exit(1);
     }
+    // run the lexer daemon if requested
+    if (ns.getBoolean("server")) {
+      serverMode(ns.getString("socket"), ns.getInt("port"), ns.getBoolean("stats"));
+      return;
+    }
+    // lex several files if requested
+    List<String> files = ns.getList("file");
+    if (files.size() > 1 || files.size() == 1 && BatchLexer.isPattern(files.get(0))) {
+      if (!"LEX".equals(ns.getString("mode"))) {
+        System.err.println("mypl: error: several input files are only supported in LEX mode");
+        System.exit(1);
+      }
+      batchMode(files, ns);
+      return;
+    }
+    String file = files.isEmpty() ? null : files.get(0);
+    // lex a memory-mapped file if requested
+    if (ns.getBoolean("mmap") && file != null && "LEX".equals(ns.getString("mode"))) {
+      try (MappedFileReader reader = new MappedFileReader(Path.of(file))) {
+        lexMode(reader, ns);
+      } catch (IOException e) {
+        System.err.println("mypl: error: unable to open file '" + file + "'");
+        System.exit(1);
+      }
+      return;
+    }
     // get the file if it is given
-    if (ns.getString("file") != null) {
-      String file = ns.getString("file");
+    if (file != null) {
       try {
         input = new FileInputStream(file);
       } catch (FileNotFoundException e) {
@@ -128,7 +401,7 @@ public class MyPL {
     if (mode == null || mode.equals("RUN"))
       runMode(input);
     else if (mode.equals("LEX"))
-      lexMode(input);
+      lexMode(new InputStreamReader(input), ns);
     else if (mode.equals("PARSE"))
       parseMode(input);
     else if (mode.equals("PRINT"))
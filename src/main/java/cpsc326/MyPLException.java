@@ -8,23 +8,46 @@ package cpsc326;
 
 /**
  * A MyPLException is an unchecked exception since it won't generally
- * be a recoverable error.
+ * be a recoverable error. MyPL errors are reported to the user by
+ * their message, not their stack trace, so no stack trace is captured
+ * and the message is only formatted when it is asked for. This keeps
+ * the error path cheap for tools that lex large amounts of malformed
+ * input.
  */
 public class MyPLException extends RuntimeException {
 
-  private enum ErrorType {
+  /**
+   * The stage an error occurred in.
+   */
+  public enum ErrorType {
     LEXER_ERROR, PARSE_ERROR, STATIC_ERROR, VM_ERROR
   };
 
-  private String message;       // the error message 
-  private ErrorType type;       // the stage the error occurred in
+  private final ErrorType type;   // the stage the error occurred in
+  private final LexError code;    // the kind of lexical error, or null
+  private final String detail;    // the error message, without position
+  private final int line;         // where the error occurred, or 0
+  private final int column;
+  private String message = null;  // the formatted message, once needed
   
   /**
    * Create a new exception of the given type.
    */
   public MyPLException(String message, ErrorType type) {
-    this.message = message;
+    this(type, null, message, 0, 0);
+  }
+
+  /**
+   * Create a new exception of the given type at the given position.
+   * A line of 0 means the position is unknown.
+   */
+  public MyPLException(ErrorType type, LexError code, String detail, int line, int column) {
+    super(null, null, false, false);
     this.type = type;
+    this.code = code;
+    this.detail = detail;
+    this.line = line;
+    this.column = column;
   }
 
   /**
@@ -32,7 +55,50 @@ public class MyPLException extends RuntimeException {
    */
   @Override
   public String getMessage() {
-    return type.toString() + ": " + message;
+    if (message == null) {
+      if (line == 0) {
+        message = type + ": " + detail;
+      } else {
+        message = type + ": [" + line + "," + column + "] " + detail;
+      }
+    }
+    return message;
+  }
+
+  /**
+   * Returns the stage the error occurred in.
+   */
+  public ErrorType type() {
+    return type;
+  }
+
+  /**
+   * Returns the kind of lexical error, or null if the error is not a
+   * lexical error or was not created with one.
+   */
+  public LexError code() {
+    return code;
+  }
+
+  /**
+   * Returns the error message without the type and position.
+   */
+  public String detail() {
+    return detail;
+  }
+
+  /**
+   * Returns the line of the error, or 0 if it is not known.
+   */
+  public int line() {
+    return line;
+  }
+
+  /**
+   * Returns the column of the error, or 0 if it is not known.
+   */
+  public int column() {
+    return column;
   }
 
   /**
@@ -42,6 +108,14 @@ public class MyPLException extends RuntimeException {
     throw new MyPLException(message, ErrorType.LEXER_ERROR);
   }
 
+  /**
+   * Helper to create a lexer error of the given kind at the given
+   * position.
+   */
+  public static void lexerError(LexError code, String message, int line, int column) {
+    throw new MyPLException(ErrorType.LEXER_ERROR, code, message, line, column);
+  }
+
   /**
    * Helper to create a parser error.
    */
@@ -0,0 +1,41 @@
+/**
+ * CPSC 326, Spring 2025
+ * Number tokens with their parsed values.
+ */
+
+package cpsc326;
+
+
+/**
+ * A NumberToken is an INT_VAL or DOUBLE_VAL token that also carries
+ * the value the lexer computed while scanning it, so it does not need
+ * to be parsed from the lexeme again.
+ */
+public class NumberToken extends Token {
+
+  private final long value;   // the value, as raw bits for doubles
+
+  /**
+   * Creates a new number token. The value is that of an INT_VAL or the
+   * raw bits of a DOUBLE_VAL.
+   */
+  NumberToken(TokenType tokenType, String lexeme, int line, int column, long value) {
+    super(tokenType, lexeme, line, column);
+    this.value = value;
+  }
+
+  /**
+   * Returns the value of an INT_VAL token.
+   */
+  public long intValue() {
+    return value;
+  }
+
+  /**
+   * Returns the value of a DOUBLE_VAL token.
+   */
+  public double doubleValue() {
+    return Double.longBitsToDouble(value);
+  }
+
+}
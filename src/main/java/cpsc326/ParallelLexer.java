@@ -0,0 +1,184 @@
+/**
+ * CPSC 326, Spring 2025
+ * Parallel lexing of large, fully buffered mypl sources.
+ */
+
+package cpsc326;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+/**
+ * The ParallelLexer splits a source into chunks that end just after a
+ * newline, lexes the chunks on a fork-join pool, and stitches the
+ * results into one TokenBuffer. Strings and comments cannot span a
+ * line in mypl, so every newline is a token boundary in a well-formed
+ * program and each chunk can be lexed speculatively from line 1,
+ * column 0. Stitching checks that assumption chunk by chunk: a chunk
+ * is only used if the chunk before it ended cleanly at the start of a
+ * line. Otherwise, or if a chunk hit an error, the rest of the source
+ * is re-lexed sequentially from the last known-good position. The
+ * result, including the EOS token and any error, is the same as the
+ * sequential Lexer's.
+ */
+public final class ParallelLexer {
+
+  private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+  private ParallelLexer() {
+  }
+
+  /**
+   * Lexes the given source on the common fork-join pool.
+   * @param source The mypl program
+   * @return The buffer holding every token up to and including EOS
+   * @throws MyPLException If the program has a lexical error
+   */
+  public static TokenBuffer lex(char[] source) {
+    TokenBuffer tokens = new TokenBuffer(source, source.length / 4);
+    lex(tokens);
+    return tokens;
+  }
+
+  /**
+   * Lexes the source of the given empty buffer into it on the common
+   * fork-join pool. Small sources, and machines with a single worker,
+   * are lexed sequentially. On an error the buffer keeps every token
+   * before it.
+   */
+  static void lex(TokenBuffer tokens) {
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    char[] source = tokens.source();
+    if (pool.getParallelism() < 2 || source.length < 2 * MIN_CHUNK_SIZE) {
+      tokens.lexRange(new Lexer(source, 0, source.length), true);
+      return;
+    }
+    int chunkSize = source.length / (pool.getParallelism() * 4);
+    lex(tokens, pool, boundaries(source, Math.max(chunkSize, MIN_CHUNK_SIZE)));
+  }
+
+  /**
+   * Lexes the chunks between the given boundaries into the buffer.
+   */
+  static void lex(TokenBuffer tokens, ForkJoinPool pool, int[] bounds) {
+    char[] source = tokens.source();
+    int count = bounds.length - 1;
+    List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(count);
+    for (int k = 0; k < count; ++k) {
+      int from = bounds[k];
+      int to = bounds[k + 1];
+      boolean last = k == count - 1;
+      tasks.add(pool.submit(() -> new Chunk(source, from, to, last)));
+    }
+    int lines = 0;           // lines before the current chunk
+    int previousLines = 0;   // lines before the previous chunk
+    Chunk previous = null;
+    for (int k = 0; k < count; ++k) {
+      Chunk chunk = tasks.get(k).join();
+      if (previous != null && !previous.endsCleanly()) {
+        cancel(tasks, k);
+        restartAtLastToken(tokens, previous, previousLines);
+        return;
+      }
+      if (chunk.error != null) {
+        cancel(tasks, k);
+        tokens.lexRange(new Lexer(source, chunk.from, source.length, lines + 1, 0), true);
+        return;
+      }
+      tokens.append(chunk.tokens, lines);
+      previousLines = lines;
+      lines += chunk.endLine - 1;
+      previous = chunk;
+    }
+  }
+
+  /**
+   * Picks chunk boundaries roughly chunkSize characters apart, each
+   * just after a newline.
+   * @return The chunk start offsets followed by the source length
+   */
+  static int[] boundaries(char[] source, int chunkSize) {
+    List<Integer> bounds = new ArrayList<>();
+    bounds.add(0);
+    int at = chunkSize;
+    while (at < source.length) {
+      while (at < source.length && source[at - 1] != '\n') {
+        ++at;
+      }
+      if (at < source.length) {
+        bounds.add(at);
+      }
+      at += chunkSize;
+    }
+    bounds.add(source.length);
+    return bounds.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Cancels the chunk tasks that will no longer be used.
+   */
+  private static void cancel(List<ForkJoinTask<Chunk>> tasks, int from) {
+    for (int k = from; k < tasks.size(); ++k) {
+      tasks.get(k).cancel(false);
+    }
+  }
+
+  /**
+   * Re-lexes sequentially from the last token of a chunk that did not
+   * end at the start of a line, since that token may continue past the
+   * chunk.
+   */
+  private static void restartAtLastToken(TokenBuffer tokens, Chunk chunk, int linesBefore) {
+    char[] source = tokens.source();
+    if (chunk.tokens.size() == 0) {
+      tokens.lexRange(new Lexer(source, chunk.from, source.length, linesBefore + 1, 0), true);
+      return;
+    }
+    int last = tokens.size() - 1;
+    Lexer lexer = new Lexer(source, tokens.rawStart(last), source.length,
+                            tokens.line(last), tokens.column(last) - 1);
+    tokens.truncate(last);
+    tokens.lexRange(lexer, true);
+  }
+
+  /**
+   * The speculative result of lexing one chunk from line 1, column 0.
+   */
+  private static class Chunk {
+
+    final int from;
+    final boolean lastCharIsCr;
+    final TokenBuffer tokens;
+    int endLine;
+    int endColumn;
+    MyPLException error;
+
+    Chunk(char[] source, int from, int to, boolean last) {
+      this.from = from;
+      this.lastCharIsCr = to > from && source[to - 1] == '\r';
+      this.tokens = new TokenBuffer(source, (to - from) / 4);
+      Lexer lexer = new Lexer(source, from, to);
+      try {
+        tokens.lexRange(lexer, last);
+        endLine = lexer.tokenLine();
+        endColumn = lexer.tokenColumn();
+      } catch (MyPLException e) {
+        error = e;
+      }
+    }
+
+    /**
+     * Checks whether the lexer state at the end of this chunk is the
+     * state the next chunk was lexed from: between tokens at the start
+     * of a line, and not between the '\r' and '\n' of a line break.
+     */
+    boolean endsCleanly() {
+      return error == null && endColumn == 1 && !lastCharIsCr;
+    }
+
+  }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * CPSC 326, Spring 2025
+ * Flight recorder event for a slow read.
+ */
+
+package cpsc326;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+
+/**
+ * A ReadStallEvent is recorded when refilling a lexer's window from
+ * its reader took longer than the threshold, so time waiting for
+ * input can be told apart from time spent lexing.
+ */
+@Name("cpsc326.ReadStall")
+@Label("Lexer Read Stall")
+@Category({"MyPL", "Lexer"})
+@Description("A refill of the lexer window that waited on the reader")
+@Threshold("1 ms")
+final class ReadStallEvent extends jdk.jfr.Event {
+
+  @Label("Requested")
+  @Description("Characters the window had room for")
+  int requested;
+
+  @Label("Read")
+  @Description("Characters the reader returned, 0 at end of input")
+  int read;
+
+}
@@ -0,0 +1,46 @@
+/**
+ * CPSC 326, Spring 2025
+ * Flight recorder event for a slow token.
+ */
+
+package cpsc326;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+/**
+ * A SlowTokenEvent is recorded for a token that took longer than the
+ * threshold to scan, including the whitespace and comments skipped
+ * before it. Refills of the window are recorded separately as
+ * ReadStallEvents. Timing every token slows lexing down several times
+ * over, so the event is off unless a recording enables it, e.g. with
+ * cpsc326.SlowToken#enabled=true in a .jfc file.
+ */
+@Name("cpsc326.SlowToken")
+@Label("Slow Token")
+@Category({"MyPL", "Lexer"})
+@Description("A token that took longer than the threshold to scan")
+@Threshold("1 ms")
+@Enabled(false)
+@StackTrace(false)
+final class SlowTokenEvent extends jdk.jfr.Event {
+
+  @Label("Token Type")
+  String tokenType;
+
+  @Label("Line")
+  int line;
+
+  @Label("Column")
+  int column;
+
+  @Label("Lexeme Length")
+  int length;
+
+}
@@ -0,0 +1,48 @@
+/**
+ * CPSC 326, Spring 2025
+ * A run of consecutive tokens.
+ */
+
+package cpsc326;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A TokenBatch holds consecutive tokens of a stream so they can be
+ * handed on together. The last batch of a stream ends with EOS.
+ */
+public final class TokenBatch {
+
+  private final List<Token> tokens;
+
+  /**
+   * Creates a batch of the given tokens.
+   */
+  TokenBatch(List<Token> tokens) {
+    this.tokens = Collections.unmodifiableList(tokens);
+  }
+
+  /**
+   * Returns the tokens of the batch as a read-only list.
+   */
+  public List<Token> tokens() {
+    return tokens;
+  }
+
+  /**
+   * Returns the number of tokens in the batch.
+   */
+  public int size() {
+    return tokens.size();
+  }
+
+  /**
+   * Checks whether this is the last batch of the stream.
+   */
+  public boolean isLast() {
+    return !tokens.isEmpty() && tokens.get(tokens.size() - 1).tokenType == TokenType.EOS;
+  }
+
+}
@@ -0,0 +1,338 @@
+/**
+ * CPSC 326, Spring 2025
+ * Compact, array-backed storage for a lexed token stream.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+/**
+ * A TokenBuffer holds every token of a fully buffered mypl source in
+ * parallel primitive arrays (type, lexeme offset, lexeme length, line,
+ * column, and the value of number tokens). Lexemes stay slices of the
+ * source until they are asked for, either as Strings or as Lexeme
+ * views, and Token objects are only created by the token() and
+ * tokens() views.
+ */
+public class TokenBuffer {
+
+  private static final TokenType[] TYPES = TokenType.values();
+
+  private final char[] source;   // the lexed source
+  private byte[] types;          // token type ordinals
+  private int[] starts;          // lexeme offsets into the source
+  private int[] lengths;         // lexeme lengths in the source
+  private int[] lines;           // token lines
+  private int[] columns;         // token columns
+  private long[] values;         // number values, as raw bits for doubles
+  private int size = 0;          // number of tokens
+
+  /**
+   * Creates an empty buffer for tokens of the given source.
+   */
+  TokenBuffer(char[] source, int capacity) {
+    this.source = source;
+    capacity = Math.max(capacity, 16);
+    types = new byte[capacity];
+    starts = new int[capacity];
+    lengths = new int[capacity];
+    lines = new int[capacity];
+    columns = new int[capacity];
+    values = new long[capacity];
+  }
+
+  /**
+   * Lexes the entire input stream into a new token buffer.
+   * @param input The mypl program as an input stream
+   * @return The buffer holding every token up to and including EOS
+   * @throws MyPLException If the program has a lexical error
+   */
+  public static TokenBuffer lex(InputStream input) {
+    try {
+      return lex(readAll(new InputStreamReader(input)));
+    } catch (IOException e) {
+      MyPLException.lexerError(LexError.READ_ERROR, "read error", 1, 1);
+    }
+    return null;
+  }
+
+  /**
+   * Lexes the given source characters into a new token buffer. The
+   * buffer keeps a reference to the array.
+   * @param source The mypl program
+   * @return The buffer holding every token up to and including EOS
+   * @throws MyPLException If the program has a lexical error
+   */
+  public static TokenBuffer lex(char[] source) {
+    TokenBuffer tokens = new TokenBuffer(source, source.length / 4);
+    tokens.lexRange(new Lexer(source, 0, source.length), true);
+    return tokens;
+  }
+
+  /**
+   * Reads every character from the given reader into an array sized
+   * to fit.
+   */
+  static char[] readAll(Reader reader) throws IOException {
+    char[] buf = new char[1 << 16];
+    int n = 0;
+    int r;
+    while ((r = reader.read(buf, n, buf.length - n)) >= 0) {
+      n += r;
+      if (n == buf.length) {
+        buf = Arrays.copyOf(buf, buf.length * 2);
+      }
+    }
+    return Arrays.copyOf(buf, n);
+  }
+
+  /**
+   * Appends the tokens scanned by the given lexer over this buffer's
+   * source, optionally including the final EOS token.
+   */
+  void lexRange(Lexer lexer, boolean withEos) {
+    TokenType type = lexer.scan();
+    while (type != TokenType.EOS) {
+      add(type, lexer.tokenStart(), lexer.tokenLength(), lexer.tokenLine(), lexer.tokenColumn(), lexer.tokenValue());
+      type = lexer.scan();
+    }
+    if (withEos) {
+      add(type, lexer.tokenStart(), 0, lexer.tokenLine(), lexer.tokenColumn(), 0);
+    }
+  }
+
+  /**
+   * Appends a token to the end of the buffer, parsing the value of a
+   * number token from the source.
+   */
+  void add(TokenType type, int start, int length, int line, int column) {
+    long value = 0;
+    if (type == TokenType.INT_VAL || type == TokenType.DOUBLE_VAL) {
+      value = Lexer.numberValue(type, source, start, length);
+    }
+    add(type, start, length, line, column, value);
+  }
+
+  /**
+   * Appends a token with the given number value to the end of the
+   * buffer.
+   */
+  void add(TokenType type, int start, int length, int line, int column, long value) {
+    if (size == types.length) {
+      grow(size + 1);
+    }
+    types[size] = (byte)type.ordinal();
+    starts[size] = start;
+    lengths[size] = length;
+    lines[size] = line;
+    columns[size] = column;
+    values[size] = value;
+    ++size;
+  }
+
+  /**
+   * Appends every token of another buffer over the same source,
+   * moving them down by the given number of lines.
+   */
+  void append(TokenBuffer other, int lineShift) {
+    append(other, 0, other.size, 0, lineShift, 0);
+  }
+
+  /**
+   * Appends the tokens from..to-1 of another buffer, moving their
+   * lexemes by offsetShift characters and their lines by lineShift.
+   * The tokens on the same line as token from are also moved
+   * columnShift columns.
+   */
+  void append(TokenBuffer other, int from, int to, int offsetShift, int lineShift, int columnShift) {
+    int count = to - from;
+    if (size + count > types.length) {
+      grow(size + count);
+    }
+    System.arraycopy(other.types, from, types, size, count);
+    System.arraycopy(other.lengths, from, lengths, size, count);
+    System.arraycopy(other.columns, from, columns, size, count);
+    System.arraycopy(other.values, from, values, size, count);
+    for (int i = 0; i < count; ++i) {
+      starts[size + i] = other.starts[from + i] + offsetShift;
+      lines[size + i] = other.lines[from + i] + lineShift;
+    }
+    if (columnShift != 0) {
+      for (int i = 0; i < count && other.lines[from + i] == other.lines[from]; ++i) {
+        columns[size + i] += columnShift;
+      }
+    }
+    size += count;
+  }
+
+  /**
+   * Grows the arrays to hold at least the given number of tokens.
+   */
+  private void grow(int minCapacity) {
+    int capacity = Math.max(types.length * 2, minCapacity);
+    types = Arrays.copyOf(types, capacity);
+    starts = Arrays.copyOf(starts, capacity);
+    lengths = Arrays.copyOf(lengths, capacity);
+    lines = Arrays.copyOf(lines, capacity);
+    columns = Arrays.copyOf(columns, capacity);
+    values = Arrays.copyOf(values, capacity);
+  }
+
+  /**
+   * Drops every token from the given index on.
+   */
+  void truncate(int newSize) {
+    size = newSize;
+  }
+
+  /**
+   * Returns the source offset of the first character of the i-th
+   * token, including a comment's '#' or a string's opening quote.
+   */
+  int rawStart(int i) {
+    TokenType type = type(i);
+    if (type == TokenType.COMMENT || type == TokenType.STRING_VAL) {
+      return starts[i] - 1;
+    }
+    return starts[i];
+  }
+
+  /**
+   * Returns the source offset just past the last character of the
+   * i-th token, including a string's closing quote.
+   */
+  int rawEnd(int i) {
+    int end = starts[i] + lengths[i];
+    return type(i) == TokenType.STRING_VAL ? end + 1 : end;
+  }
+
+  /**
+   * Returns the number of tokens in the buffer.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the source the token offsets refer to.
+   */
+  public char[] source() {
+    return source;
+  }
+
+  /**
+   * Returns the type of the i-th token.
+   */
+  public TokenType type(int i) {
+    return TYPES[types[i]];
+  }
+
+  /**
+   * Returns the source offset of the i-th token's lexeme. Comments and
+   * strings exclude the leading '#' and the quotes.
+   */
+  public int start(int i) {
+    return starts[i];
+  }
+
+  /**
+   * Returns the number of source characters in the i-th token's
+   * lexeme.
+   */
+  public int length(int i) {
+    return lengths[i];
+  }
+
+  /**
+   * Returns the line of the i-th token.
+   */
+  public int line(int i) {
+    return lines[i];
+  }
+
+  /**
+   * Returns the column of the i-th token.
+   */
+  public int column(int i) {
+    return columns[i];
+  }
+
+  /**
+   * Returns the value of the i-th token, which must be an INT_VAL.
+   */
+  public long intValue(int i) {
+    return values[i];
+  }
+
+  /**
+   * Returns the value of the i-th token, which must be a DOUBLE_VAL.
+   */
+  public double doubleValue(int i) {
+    return Double.longBitsToDouble(values[i]);
+  }
+
+  /**
+   * Builds the lexeme string of the i-th token.
+   */
+  public String lexeme(int i) {
+    return Lexer.lexeme(type(i), source, starts[i], lengths[i]);
+  }
+
+  /**
+   * Returns a view of the i-th token's lexeme over the source, for
+   * callers that only compare or hash lexemes. Nothing is copied
+   * except the decoded lexeme of a string with escapes.
+   */
+  public Lexeme lexemeView(int i) {
+    return Lexeme.of(type(i), source, starts[i], lengths[i]);
+  }
+
+  /**
+   * Builds a Token object for the i-th token.
+   */
+  public Token token(int i) {
+    TokenType type = type(i);
+    if (type == TokenType.INT_VAL || type == TokenType.DOUBLE_VAL) {
+      return new NumberToken(type, lexeme(i), lines[i], columns[i], values[i]);
+    }
+    return new Token(type, lexeme(i), lines[i], columns[i]);
+  }
+
+  /**
+   * Returns a read-only list view of the buffer that creates each
+   * Token on access.
+   */
+  public List<Token> tokens() {
+    return new TokenList();
+  }
+
+  /**
+   * Lazy list view over the buffer.
+   */
+  private class TokenList extends AbstractList<Token> implements RandomAccess {
+
+    @Override
+    public Token get(int i) {
+      if (i < 0 || i >= size) {
+        throw new IndexOutOfBoundsException(i);
+      }
+      return token(i);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+  }
+
+}
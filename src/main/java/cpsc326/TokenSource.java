@@ -0,0 +1,21 @@
+/**
+ * CPSC 326, Spring 2025
+ * Common interface for the mypl lexer engines.
+ */
+
+package cpsc326;
+
+
+/**
+ * A TokenSource produces mypl tokens one at a time, ending with an
+ * EOS token.
+ */
+public interface TokenSource {
+
+  /**
+   * Obtains and returns the next token in the stream.
+   * @return The next token in the stream.
+   */
+  Token nextToken();
+
+}
@@ -0,0 +1,75 @@
+/**
+ * CPSC 326, Spring 2025
+ * Spliterator over the tokens of a lexer.
+ */
+
+package cpsc326;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+
+/**
+ * A TokenSpliterator traverses the tokens of a Lexer in order. Over a
+ * fully buffered source it splits at a newline near the middle of the
+ * unread characters: strings and comments cannot span a line, so a
+ * newline is always between tokens. The prefix half does not report
+ * the EOS token its lexer ends with; only the last part of the source
+ * does.
+ */
+final class TokenSpliterator implements Spliterator<Token> {
+
+  private static final int MIN_SPLIT = 1 << 12;
+
+  private final Lexer lexer;
+  private final boolean withEos;   // whether to report the final EOS
+  private boolean done = false;
+
+  /**
+   * Creates a spliterator over the remaining tokens of the lexer.
+   */
+  TokenSpliterator(Lexer lexer, boolean withEos) {
+    this.lexer = lexer;
+    this.withEos = withEos;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Token> action) {
+    if (done) {
+      return false;
+    }
+    Token t = lexer.nextToken();
+    if (t.tokenType == TokenType.EOS) {
+      done = true;
+      if (!withEos) {
+        return false;
+      }
+    }
+    action.accept(t);
+    return true;
+  }
+
+  @Override
+  public Spliterator<Token> trySplit() {
+    if (done || lexer.remaining() < MIN_SPLIT) {
+      return null;
+    }
+    int at = lexer.splitPoint();
+    if (at < 0) {
+      return null;
+    }
+    return new TokenSpliterator(lexer.splitAt(at), false);
+  }
+
+  @Override
+  public long estimateSize() {
+    int remaining = lexer.remaining();
+    return done ? 0 : remaining < 0 ? Long.MAX_VALUE : remaining / 4 + 1;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * CPSC 326, Spring 2025
+ * Writer for the text LEX output format.
+ */
+
+package cpsc326;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * A TokenTextWriter writes each token as Token.toString() does,
+ * TYPE "lexeme" line N column M, followed by the platform line
+ * separator. Lines are formatted straight into a reusable byte buffer
+ * that is passed on in large blocks, so no String is built per token
+ * and the stream is not flushed per line. ASCII is copied byte for
+ * byte; other characters are encoded in the given charset.
+ */
+public class TokenTextWriter implements TokenWriter {
+
+  private static final byte[][] PREFIXES = new byte[TokenType.values().length][];
+  private static final byte[] LINE = " line ".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] COLUMN = " column ".getBytes(StandardCharsets.US_ASCII);
+
+  static {
+    for (TokenType type : TokenType.values()) {
+      PREFIXES[type.ordinal()] = (type + " \"").getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
+  private final OutputStream out;
+  private final Charset charset;
+  private final byte[] newline;
+  private byte[] buf = new byte[1 << 16];
+  private int count = 0;         // bytes in buf
+
+  /**
+   * Creates a writer on the given stream.
+   * @param out The stream to write to, which is not flushed per token
+   * @param charset The charset for characters outside ASCII
+   */
+  public TokenTextWriter(OutputStream out, Charset charset) {
+    this.out = out;
+    this.charset = charset;
+    this.newline = System.lineSeparator().getBytes(charset);
+  }
+
+  @Override
+  public void write(Token token) throws IOException {
+    String lexeme = token.lexeme;
+    byte[] prefix = PREFIXES[token.tokenType.ordinal()];
+    reserve(prefix.length + lexeme.length() + 48);
+    System.arraycopy(prefix, 0, buf, count, prefix.length);
+    count += prefix.length;
+    int n = lexeme.length();
+    for (int i = 0; i < n; ++i) {
+      char ch = lexeme.charAt(i);
+      if (ch >= 0x80) {
+        writeEncoded(lexeme.substring(i));
+        break;
+      }
+      buf[count++] = (byte)ch;
+    }
+    buf[count++] = '"';
+    writeBytes(LINE);
+    writeInt(token.line);
+    writeBytes(COLUMN);
+    writeInt(token.column);
+    writeBytes(newline);
+  }
+
+  /**
+   * Writes the rest of a lexeme that is not all ASCII.
+   */
+  private void writeEncoded(String rest) throws IOException {
+    byte[] bytes = rest.getBytes(charset);
+    reserve(bytes.length + 48);
+    writeBytes(bytes);
+  }
+
+  /**
+   * Copies bytes into the buffer. The caller has reserved room.
+   */
+  private void writeBytes(byte[] bytes) {
+    System.arraycopy(bytes, 0, buf, count, bytes.length);
+    count += bytes.length;
+  }
+
+  /**
+   * Formats an int in decimal into the buffer. The caller has
+   * reserved room.
+   */
+  private void writeInt(int value) {
+    if (value < 0) {
+      if (value == Integer.MIN_VALUE) {
+        writeBytes(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+        return;
+      }
+      buf[count++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (int v = value; v >= 10; v /= 10) {
+      ++digits;
+    }
+    count += digits;
+    for (int i = count - 1; i >= count - digits; --i) {
+      buf[i] = (byte)('0' + value % 10);
+      value /= 10;
+    }
+  }
+
+  /**
+   * Makes room for at least the given number of bytes, draining the
+   * buffer or, for a huge token, growing it.
+   */
+  private void reserve(int length) throws IOException {
+    if (count + length > buf.length) {
+      drain();
+      if (length > buf.length) {
+        buf = new byte[length];
+      }
+    }
+  }
+
+  /**
+   * Passes the buffered bytes on to the stream.
+   */
+  private void drain() throws IOException {
+    out.write(buf, 0, count);
+    count = 0;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    drain();
+    out.flush();
+  }
+
+}
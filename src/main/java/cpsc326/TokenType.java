@@ -8,19 +8,40 @@ package cpsc326;
 
 public enum TokenType {
   // punctuation symbols
-  DOT, COLON, COMMA, LPAREN, RPAREN, LBRACKET, RBRACKET, LBRACE, RBRACE, 
+  DOT("."), COLON(":"), COMMA(","), LPAREN("("), RPAREN(")"), LBRACKET("["), RBRACKET("]"),
+  LBRACE("{"), RBRACE("}"), 
   // arithmetic operators
-  PLUS, MINUS, TIMES, DIVIDE, 
+  PLUS("+"), MINUS("-"), TIMES("*"), DIVIDE("/"), 
   // assignment and comparator operators
-  ASSIGN, EQUAL, NOT_EQUAL, LESS, LESS_EQ, GREATER, GREATER_EQ, 
+  ASSIGN("="), EQUAL("=="), NOT_EQUAL("!="), LESS("<"), LESS_EQ("<="), GREATER(">"), GREATER_EQ(">="), 
   // primitive values and identifiers
-  STRING_VAL, INT_VAL, DOUBLE_VAL, BOOL_VAL, NULL_VAL, ID, 
+  STRING_VAL, INT_VAL, DOUBLE_VAL, BOOL_VAL, NULL_VAL("null"), ID, 
   // boolean operators
-  AND, OR, NOT,
+  AND("and"), OR("or"), NOT("not"),
   // data types
-  INT_TYPE, DOUBLE_TYPE, CHAR_TYPE, STRING_TYPE, BOOL_TYPE, VOID_TYPE,
+  INT_TYPE("int"), DOUBLE_TYPE("double"), CHAR_TYPE, STRING_TYPE("string"), BOOL_TYPE("bool"),
+  VOID_TYPE("void"),
   // reserved words
-  STRUCT, VAR, WHILE, FOR, FROM, TO, IF, ELSE, NEW, RETURN, 
+  STRUCT("struct"), VAR("var"), WHILE("while"), FOR("for"), FROM("from"), TO("to"), IF("if"),
+  ELSE("else"), NEW("new"), RETURN("return"), 
   // comment token and end-of-stream
-  COMMENT, EOS
+  COMMENT, EOS("end-of-stream");
+
+  private final String lexeme;   // shared lexeme, or null if it varies
+
+  TokenType() {
+    this(null);
+  }
+
+  TokenType(String lexeme) {
+    this.lexeme = lexeme;
+  }
+
+  /**
+   * Returns the lexeme every token of this type shares, or null if
+   * the lexeme varies from token to token.
+   */
+  public String fixedLexeme() {
+    return lexeme;
+  }
 }
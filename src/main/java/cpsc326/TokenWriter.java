@@ -0,0 +1,34 @@
+/**
+ * CPSC 326, Spring 2025
+ * Common interface for the LEX mode output formats.
+ */
+
+package cpsc326;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+
+/**
+ * A TokenWriter writes a stream of mypl tokens in some output format.
+ * Writers may buffer, so the stream is only complete after flush().
+ */
+public interface TokenWriter extends Flushable {
+
+  /**
+   * Writes the next token of the stream.
+   * @param token The token to write
+   * @throws IOException If the output cannot be written
+   */
+  void write(Token token) throws IOException;
+
+  /**
+   * Records that the stream ended in the given error. Formats that
+   * cannot hold an error write nothing.
+   * @param error The lexer error
+   * @throws IOException If the output cannot be written
+   */
+  default void writeError(MyPLException error) throws IOException {
+  }
+
+}
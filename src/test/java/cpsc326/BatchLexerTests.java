@@ -0,0 +1,142 @@
+/**
+ * CPSC 326, Spring 2025
+ * Batch lexer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+
+class BatchLexerTests {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void outputsMatchExamples() throws Exception {
+    var files = BatchLexer.expand(List.of("examples/hw1_*.mypl"));
+    assertTrue(files.size() > 1);
+    var log = new ByteArrayOutputStream();
+    var batch = new BatchLexer(4, dir, new PrintStream(log));
+    assertEquals(0, batch.run(files));
+    for (Path file : files) {
+      Path expected = Path.of(file.toString().replace(".mypl", ".out"));
+      if (Files.exists(expected)) {
+        assertEquals(Files.readString(expected), Files.readString(batch.outputFor(file)), file.toString());
+      }
+    }
+    assertTrue(log.toString().startsWith("mypl: lexed " + files.size() + " files"));
+  }
+
+  @Test
+  void errorsAreReportedPerFile() throws Exception {
+    Files.writeString(dir.resolve("good.mypl"), "x = 1\n");
+    Files.writeString(dir.resolve("bad.mypl"), "x = 1 ?\n");
+    Files.writeString(dir.resolve("notes.txt"), "?");
+    var files = BatchLexer.expand(List.of(dir.toString()));
+    assertEquals(List.of(dir.resolve("bad.mypl"), dir.resolve("good.mypl")), files);
+    var log = new ByteArrayOutputStream();
+    assertEquals(1, new BatchLexer(2, null, new PrintStream(log)).run(files));
+    assertTrue(log.toString().contains("bad.mypl: LEXER_ERROR: [1,7] unrecognized symbol '?'"));
+    assertEquals(4, Files.readAllLines(dir.resolve("good.out")).size());
+    assertEquals(3, Files.readAllLines(dir.resolve("bad.out")).size());
+  }
+
+  @Test
+  void recoveringFilesKeepGoing() throws Exception {
+    Files.writeString(dir.resolve("bad.mypl"), "x = 1 ?\ny = $\n");
+    var log = new ByteArrayOutputStream();
+    var batch = new BatchLexer(2, null, new PrintStream(log)).recovering();
+    assertEquals(0, batch.run(List.of(dir.resolve("bad.mypl"))));
+    assertTrue(log.toString().contains("bad.mypl: LEXER_ERROR: [1,7] unrecognized symbol '?'\n"));
+    assertTrue(log.toString().contains("bad.mypl: LEXER_ERROR: [2,5] unrecognized symbol '$'\n"));
+    assertEquals(6, Files.readAllLines(dir.resolve("bad.out")).size());
+  }
+
+  @Test
+  void commentsCanBeSkipped() throws Exception {
+    Files.writeString(dir.resolve("a.mypl"), "# header\nx = 1 # one\n");
+    var batch = new BatchLexer(1, null, new PrintStream(new ByteArrayOutputStream())).skippingComments();
+    assertEquals(0, batch.run(List.of(dir.resolve("a.mypl"))));
+    assertEquals(List.of("ID \"x\" line 2 column 1", "ASSIGN \"=\" line 2 column 3",
+                         "INT_VAL \"1\" line 2 column 5", "EOS \"end-of-stream\" line 3 column 1"),
+                 Files.readAllLines(dir.resolve("a.out")));
+  }
+
+  @Test
+  void lexemesCanBeBounded() throws Exception {
+    Files.writeString(dir.resolve("a.mypl"), "short = \"" + "s".repeat(100) + "\"\n");
+    var log = new ByteArrayOutputStream();
+    var batch = new BatchLexer(1, null, new PrintStream(log)).bounded(50).windowed(8);
+    assertEquals(1, batch.run(List.of(dir.resolve("a.mypl"))));
+    assertTrue(log.toString().contains("a.mypl: LEXER_ERROR: [1,9] lexeme longer than 50 characters"), log.toString());
+    assertEquals(2, Files.readAllLines(dir.resolve("a.out")).size());
+    assertThrows(IllegalArgumentException.class, () -> batch.bounded(0));
+    assertThrows(IllegalArgumentException.class, () -> batch.windowed(0));
+  }
+
+  @Test
+  void mappedSourcesGiveTheSameOutputs() throws Exception {
+    var files = BatchLexer.expand(List.of("examples/hw1_*.mypl"));
+    var log = new PrintStream(new ByteArrayOutputStream());
+    Path mappedDir = Files.createDirectory(dir.resolve("mapped"));
+    assertEquals(0, new BatchLexer(2, dir, log).run(files));
+    assertEquals(0, new BatchLexer(2, mappedDir, log).mapped().run(files));
+    for (Path file : files) {
+      Path out = new BatchLexer(1, dir, log).outputFor(file);
+      assertEquals(Files.readString(out), Files.readString(mappedDir.resolve(out.getFileName())), file.toString());
+    }
+  }
+
+  @Test
+  void parallelSourcesGiveTheSameOutputs() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    Files.writeString(dir.resolve("big.mypl"), src.repeat(4000));
+    Files.writeString(dir.resolve("bad.mypl"), src.repeat(4000) + "x = ?\n" + src);
+    var files = List.of(dir.resolve("big.mypl"), dir.resolve("bad.mypl"));
+    var log = new ByteArrayOutputStream();
+    Path parallelDir = Files.createDirectory(dir.resolve("parallel"));
+    assertEquals(1, new BatchLexer(2, dir, new PrintStream(log)).skippingComments().binary().run(files));
+    assertEquals(1, new BatchLexer(2, parallelDir, new PrintStream(log)).skippingComments().binary().parallel()
+                 .run(files));
+    for (String name : new String[] {"big.out", "bad.out"}) {
+      assertTrue(Arrays.equals(Files.readAllBytes(dir.resolve(name)), Files.readAllBytes(parallelDir.resolve(name))),
+                 name);
+    }
+    var lines = log.toString().lines().filter(l -> l.contains("bad.mypl")).toList();
+    assertEquals(2, lines.size());
+    assertEquals(lines.get(0), lines.get(1));
+  }
+
+  @Test
+  void binaryOutputsReadBack() throws Exception {
+    Files.writeString(dir.resolve("good.mypl"), "x = \"hi\" # done\n");
+    Files.writeString(dir.resolve("bad.mypl"), "x = 1 ?\n");
+    var files = BatchLexer.expand(List.of(dir.toString()));
+    var log = new ByteArrayOutputStream();
+    assertEquals(1, new BatchLexer(2, null, new PrintStream(log)).binary().run(files));
+    var good = new BinaryTokenReader(Files.newInputStream(dir.resolve("good.out")));
+    for (Token t : TokenBuffer.lex("x = \"hi\" # done\n".toCharArray()).tokens()) {
+      assertEquals(t.toString(), good.nextToken().toString());
+    }
+    var bad = new BinaryTokenReader(Files.newInputStream(dir.resolve("bad.out")));
+    assertEquals("ID \"x\" line 1 column 1", bad.nextToken().toString());
+    assertEquals("ASSIGN \"=\" line 1 column 3", bad.nextToken().toString());
+    assertEquals("INT_VAL \"1\" line 1 column 5", bad.nextToken().toString());
+    var e = assertThrows(MyPLException.class, bad::nextToken);
+    assertEquals(LexError.UNRECOGNIZED_SYMBOL, e.code());
+    assertEquals("LEXER_ERROR: [1,7] unrecognized symbol '?'", e.getMessage());
+  }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * CPSC 326, Spring 2025
+ * Binary token stream tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+
+/**
+ * LexerTests holds the tokens read back from the binary format to the
+ * lexer's. These cases cover the format itself: its size, its error
+ * records, and streams that are cut short, are not token streams, or
+ * hold bad records.
+ */
+class BinaryTokenTests {
+
+  /**
+   * Helper to build an input stream over a string.
+   */
+  static InputStream istream(String str) {
+    return new ByteArrayInputStream(str.getBytes());
+  }
+
+  /**
+   * Helper to build a binary token stream from the header and the
+   * given record bytes.
+   */
+  static BinaryTokenReader reader(int... record) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    bytes.write(BinaryTokenWriter.MAGIC);
+    bytes.write(BinaryTokenWriter.VERSION);
+    for (int b : record) {
+      bytes.write(b);
+    }
+    return new BinaryTokenReader(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  /**
+   * Helper to encode every token of the input, ending with the error
+   * record if the input has a lexical error.
+   */
+  static byte[] encode(InputStream input) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    var out = new BinaryTokenWriter(bytes);
+    Lexer lexer = new Lexer(input);
+    try {
+      Token t = null;
+      do {
+        t = lexer.nextToken();
+        out.write(t);
+      } while (t.tokenType != TokenType.EOS);
+    } catch (MyPLException e) {
+      out.writeError(e);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  @Test
+  void muchSmallerThanText() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(100);
+    var text = TokenBuffer.lex(src.toCharArray()).tokens().stream()
+      .mapToInt(t -> t.toString().length() + 1).sum();
+    var binary = encode(istream(src)).length;
+    assertTrue(binary * 10 < text, binary + " vs " + text);
+  }
+
+  @Test
+  void repeatedLexemesShareTableEntries() throws Exception {
+    var once = encode(istream("some_long_name "));
+    var twice = encode(istream("some_long_name some_long_name "));
+    assertEquals(once.length + 3, twice.length);
+  }
+
+  @Test
+  void errorsKeepTheirFields() throws Exception {
+    for (var p : new String[] {"x = 1 ?", "\n  s = \"abc\ny", "x = 007", "n = 99999999999999999999"}) {
+      var expected = assertThrows(MyPLException.class, () -> LexerRecoveryTests.tokens(new Lexer(istream(p))));
+      var reader = new BinaryTokenReader(new ByteArrayInputStream(encode(istream(p))));
+      var e = assertThrows(MyPLException.class, () -> {
+        while (reader.nextToken().tokenType != TokenType.EOS) {
+        }
+      });
+      assertEquals(expected.code(), e.code(), p);
+      assertEquals(expected.line(), e.line(), p);
+      assertEquals(expected.column(), e.column(), p);
+      assertEquals(expected.detail(), e.detail(), p);
+      assertEquals(expected.getMessage(), e.getMessage(), p);
+    }
+  }
+
+  @Test
+  void readsVersionOneErrors() throws Exception {
+    var bytes = new ByteArrayOutputStream();
+    bytes.write(BinaryTokenWriter.MAGIC);
+    bytes.write(new byte[] {1, (byte)(BinaryTokenWriter.ERROR << 1), 0});
+    var message = "LEXER_ERROR: [2,3] unrecognized symbol '?'".getBytes();
+    bytes.write(message.length);
+    bytes.write(message);
+    var reader = new BinaryTokenReader(new ByteArrayInputStream(bytes.toByteArray()));
+    var e = assertThrows(MyPLException.class, reader::nextToken);
+    assertEquals("LEXER_ERROR: [2,3] unrecognized symbol '?'", e.getMessage());
+  }
+
+  @Test
+  void rejectsOtherStreams() {
+    var e = assertThrows(IOException.class,
+                         () -> new BinaryTokenReader(new ByteArrayInputStream("ID \"x\"".getBytes())));
+    assertEquals("not a binary token stream", e.getMessage());
+    e = assertThrows(IOException.class, () -> new BinaryTokenReader(istream("MYPLTO")));
+    assertEquals("not a binary token stream", e.getMessage());
+    for (int version : new int[] {0, 3, 255}) {
+      var bytes = Arrays.copyOf(BinaryTokenWriter.MAGIC, BinaryTokenWriter.MAGIC.length + 1);
+      bytes[bytes.length - 1] = (byte)version;
+      e = assertThrows(IOException.class, () -> new BinaryTokenReader(new ByteArrayInputStream(bytes)));
+      assertEquals("unsupported binary token stream version " + version, e.getMessage());
+    }
+  }
+
+  @Test
+  void truncatedStreamsFailToRead() throws Exception {
+    var p = "x = \"some text\" # note\n  y = 3.25 * x ?";
+    var expected = new ArrayList<String>();
+    var full = new BinaryTokenReader(new ByteArrayInputStream(encode(istream(p))));
+    assertThrows(MyPLException.class, () -> {
+      while (true) {
+        expected.add(full.nextToken().toString());
+      }
+    });
+    byte[] bytes = encode(istream(p));
+    for (int cut = 0; cut <= BinaryTokenWriter.MAGIC.length; ++cut) {
+      var in = new ByteArrayInputStream(bytes, 0, cut);
+      assertThrows(IOException.class, () -> new BinaryTokenReader(in), "cut at " + cut);
+    }
+    for (int cut = BinaryTokenWriter.MAGIC.length + 1; cut < bytes.length; ++cut) {
+      var reader = new BinaryTokenReader(new ByteArrayInputStream(bytes, 0, cut));
+      var tokens = new ArrayList<String>();
+      var e = assertThrows(UncheckedIOException.class, () -> {
+        while (true) {
+          tokens.add(reader.nextToken().toString());
+        }
+      }, "cut at " + cut);
+      assertInstanceOf(EOFException.class, e.getCause(), "cut at " + cut);
+      assertEquals(expected.subList(0, tokens.size()), tokens, "cut at " + cut);
+    }
+  }
+
+  @Test
+  void rejectsBadRecords() throws Exception {
+    int id = TokenType.ID.ordinal() << 1;
+    int error = BinaryTokenWriter.ERROR << 1;
+    var cases = Map.of(
+      "bad token type " + (BinaryTokenWriter.ERROR + 1), reader(error + 2, 1),
+      "bad string index 3", reader(id, 1, 3),
+      "bad error code 99", reader(error, 99, 1, 1, 0, 0),
+      "bad varint", reader(0xff, 0xff, 0xff, 0xff, 0xff, 0x01));
+    for (var c : cases.entrySet()) {
+      var e = assertThrows(UncheckedIOException.class, c.getValue()::nextToken);
+      assertEquals(c.getKey(), e.getCause().getMessage());
+    }
+    var reader = reader(id, 1, 0, 1, 'x', id, 2, 0);
+    assertEquals("ID \"x\" line 0 column 1", reader.nextToken().toString());
+    assertEquals("ID \"x\" line 0 column 3", reader.nextToken().toString());
+  }
+
+}
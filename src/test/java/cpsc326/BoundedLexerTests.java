@@ -0,0 +1,177 @@
+/**
+ * CPSC 326, Spring 2025
+ * Bounded-memory lexer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+class BoundedLexerTests {
+
+  /**
+   * Helper to lex a source with a small window and the given cap.
+   */
+  static Lexer lexer(String p, int maxLexeme) {
+    return new Lexer(new StringReader(p), 8).bounded(maxLexeme);
+  }
+
+  /**
+   * Helper to check that a source fails with a too-long lexeme at the
+   * given position.
+   */
+  static void tooLong(String p, int maxLexeme, String position) {
+    var e = assertThrows(MyPLException.class, () -> LexerRecoveryTests.tokens(lexer(p, maxLexeme)));
+    assertEquals(LexError.LEXEME_TOO_LONG, e.code());
+    assertEquals("LEXER_ERROR: " + position + " lexeme longer than " + maxLexeme + " characters",
+                 e.getMessage());
+  }
+
+  @Test
+  void longLexemesAreErrors() {
+    tooLong("x = \"" + "a".repeat(100) + "\"", 50, "[1,5]");
+    tooLong("x\n  " + "y".repeat(51), 50, "[2,3]");
+    tooLong("# " + "c".repeat(60) + "\nx", 50, "[1,1]");
+    tooLong("1." + "5".repeat(60), 50, "[1,1]");
+    tooLong("x = abcdefghijk", 10, "[1,5]");
+  }
+
+  @Test
+  void lexemesUpToTheCapAreKept() {
+    var id = "y".repeat(50);
+    assertEquals(List.of("ID " + id, "EOS end-of-stream"), LexerRecoveryTests.tokens(lexer(id, 50)));
+    var s = "\"" + "a".repeat(48) + "\"";
+    assertEquals(List.of("STRING_VAL " + "a".repeat(48), "EOS end-of-stream"),
+                 LexerRecoveryTests.tokens(lexer(s, 50)));
+  }
+
+  @Test
+  void smallWindowsGiveTheSameTokens() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    var expected = LexerRecoveryTests.tokens(new Lexer(p.toCharArray(), 0, p.length()));
+    for (int size : new int[] {1, 2, 7, 64}) {
+      assertEquals(expected, LexerRecoveryTests.tokens(new Lexer(new StringReader(p), size)), "window " + size);
+    }
+    assertThrows(IllegalArgumentException.class, () -> new Lexer(new StringReader(p), 0));
+    assertThrows(IllegalArgumentException.class, () -> new Lexer(new StringReader(p), 8).bounded(0));
+  }
+
+  @Test
+  void recoveryGoesOnAfterLongTokens() {
+    var p = "a = \"" + "s".repeat(500) + "\" + b\n" + "c".repeat(500) + " = 1\n\"open" + "o".repeat(500) + "\nd";
+    Lexer lexer = lexer(p, 100).recovering();
+    var tokens = LexerRecoveryTests.tokens(lexer);
+    assertEquals(List.of("ID a", "ASSIGN =", "PLUS +", "ID b", "ASSIGN =", "INT_VAL 1", "ID d",
+                         "EOS end-of-stream"), tokens);
+    var messages = lexer.diagnostics().stream().map(Diagnostic::toString).toList();
+    assertEquals(List.of("LEXER_ERROR: [1,5] lexeme longer than 100 characters",
+                         "LEXER_ERROR: [2,1] lexeme longer than 100 characters",
+                         "LEXER_ERROR: [3,1] lexeme longer than 100 characters"), messages);
+  }
+
+  @Test
+  void skippedCommentsAreNotLimited() {
+    var p = "x # " + "c".repeat(1000) + "\ny";
+    var tokens = LexerRecoveryTests.tokens(lexer(p, 10).skippingComments());
+    assertEquals(List.of("ID x", "ID y", "EOS end-of-stream"), tokens);
+  }
+
+  /**
+   * A reader that repeats a source up to a given number of characters
+   * without holding more than one copy of it.
+   */
+  static class Repeating extends Reader {
+
+    final char[] source;
+    long remaining;
+    int at = 0;
+
+    Repeating(String source, long length) {
+      this.source = source.toCharArray();
+      this.remaining = length;
+    }
+
+    @Override
+    public int read(char[] buf, int off, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(Math.min(len, remaining), source.length - at);
+      System.arraycopy(source, at, buf, off, n);
+      at = (at + n) % source.length;
+      remaining -= n;
+      return n;
+    }
+
+    @Override
+    public void close() {
+    }
+
+  }
+
+  /**
+   * Helper to return the heap in use after a collection.
+   */
+  static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  @Test
+  @Tag("soak")
+  void multiGigabyteInputInBoundedMemory() throws Exception {
+    var line = "x = \"" + "a".repeat(40) + "\" + 12 * y.z # note\n";
+    long length = 3L << 30;
+    // a huge unterminated string in the middle of the input
+    var middle = "s = \"" + "o".repeat(1 << 20);
+    long half = length / 2 / line.length() * line.length();
+    var input = new Reader() {
+      final Reader[] parts = {new Repeating(line, half), new StringReader(middle + "\n"), new Repeating(line, half)};
+      int part = 0;
+
+      @Override
+      public int read(char[] buf, int off, int len) throws IOException {
+        while (part < parts.length) {
+          int n = parts[part].read(buf, off, len);
+          if (n > 0) {
+            return n;
+          }
+          ++part;
+        }
+        return -1;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    long before = usedHeap();
+    Lexer lexer = new Lexer(input).bounded(1 << 16).recovering();
+    long tokens = 0;
+    long peak = 0;
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      if ((++tokens & ((1 << 24) - 1)) == 0) {
+        peak = Math.max(peak, usedHeap() - before);
+      }
+    } while (t.tokenType != TokenType.EOS);
+    assertEquals(1, lexer.diagnostics().size());
+    assertEquals(LexError.LEXEME_TOO_LONG, lexer.diagnostics().get(0).kind());
+    assertTrue(tokens > 300_000_000L, "tokens " + tokens);
+    assertTrue(peak < 8L << 20, "heap grew by " + peak);
+  }
+
+}
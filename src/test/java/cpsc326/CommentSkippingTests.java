@@ -0,0 +1,87 @@
+/**
+ * CPSC 326, Spring 2025
+ * Comment skipping tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+
+class CommentSkippingTests {
+
+  /**
+   * Helper to print every token of a source, optionally dropping
+   * comments from the output.
+   */
+  static List<String> tokens(TokenSource lexer, boolean dropComments) {
+    var out = new ArrayList<String>();
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      if (!dropComments || t.tokenType != TokenType.COMMENT) {
+        out.add(t.toString());
+      }
+    } while (t.tokenType != TokenType.EOS);
+    return out;
+  }
+
+  /**
+   * Helper to create a comment-skipping lexer over a byte stream.
+   */
+  static Lexer skipping(String p) {
+    return new Lexer(new ByteArrayInputStream(p.getBytes())).skippingComments();
+  }
+
+  @Test
+  void commentsAreLeftOut() {
+    var p = "# header\nx = 1 # trailing\r\n#\r# last";
+    assertEquals(List.of("ID \"x\" line 2 column 1", "ASSIGN \"=\" line 2 column 3",
+                         "INT_VAL \"1\" line 2 column 5", "EOS \"end-of-stream\" line 4 column 7"),
+                 tokens(skipping(p), false));
+  }
+
+  @Test
+  void positionsMatchTheReferenceLexer() throws Exception {
+    var p = ParallelLexerTests.program();
+    assertEquals(tokens(new ReaderLexer(new ByteArrayInputStream(p.getBytes())), true),
+                 tokens(skipping(p), false));
+  }
+
+  @Test
+  void randomWhitespaceAndComments() {
+    var random = new Random(326);
+    String[] pieces = {" ", "\t", "\n", "\r\n", "\r", "\f", "x", "42", "\"s\"", "# c\n", "#\r", "+", "  # long " + "-".repeat(70000) + "\n"};
+    for (int n = 0; n < 50; ++n) {
+      var p = new StringBuilder();
+      for (int i = random.nextInt(60); i > 0; --i) {
+        p.append(pieces[random.nextInt(pieces.length)]).append(' ');
+      }
+      var src = p.toString();
+      assertEquals(tokens(new ReaderLexer(new ByteArrayInputStream(src.getBytes())), true),
+                   tokens(skipping(src), false), src);
+      assertEquals(tokens(new ReaderLexer(new ByteArrayInputStream(src.getBytes())), false),
+                   tokens(new Lexer(new ByteArrayInputStream(src.getBytes())), false), src);
+    }
+  }
+
+  @Test
+  void parallelStreamsSkipToo() throws Exception {
+    var p = ParallelLexerTests.program().repeat(30);
+    var pool = new ForkJoinPool(4);
+    try {
+      var tokens = pool.submit(() -> new Lexer(p.toCharArray(), 0, p.length()).skippingComments()
+                                   .stream().parallel().map(Token::toString).toList()).get();
+      assertEquals(tokens(new Lexer(p.toCharArray(), 0, p.length()), true), tokens);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * CPSC 326, Spring 2025
+ * Identifier interner tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+class IdentifierInternerTests {
+
+  /**
+   * Helper to lex a source with the given pool into its tokens.
+   */
+  static List<Token> tokens(String p, IdentifierInterner identifiers) {
+    var out = new ArrayList<Token>();
+    Lexer lexer = new Lexer(new ByteArrayInputStream(p.getBytes())).interning(identifiers);
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      out.add(t);
+    } while (t.tokenType != TokenType.EOS);
+    return out;
+  }
+
+  @Test
+  void repeatedNamesAreOneString() {
+    var identifiers = new IdentifierInterner();
+    var first = tokens("x = count + x\nfoo(count)", identifiers);
+    var second = tokens("count = foo", identifiers);
+    assertSame(first.get(0).lexeme, first.get(4).lexeme);
+    assertSame(first.get(2).lexeme, first.get(7).lexeme);
+    assertSame(first.get(2).lexeme, second.get(0).lexeme);
+    assertSame(first.get(5).lexeme, second.get(2).lexeme);
+    assertSame(identifiers.intern("count"), second.get(0).lexeme);
+    assertEquals(3, identifiers.size());
+    assertEquals(5, identifiers.hits());
+  }
+
+  @Test
+  void tokensAreUnchanged() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    var plain = LexerRecoveryTests.tokens(new Lexer(new ByteArrayInputStream(p.getBytes())));
+    var interned = tokens(p, new IdentifierInterner(4)).stream().map(t -> t.tokenType + " " + t.lexeme).toList();
+    assertEquals(plain, interned);
+  }
+
+  @Test
+  void sizeIsCapped() {
+    var identifiers = new IdentifierInterner(1000);
+    for (int i = 0; i < 100_000; ++i) {
+      identifiers.intern("name_" + i);
+    }
+    assertTrue(identifiers.size() <= 1000 + 64, "size " + identifiers.size());
+    assertTrue(identifiers.size() >= 900, "size " + identifiers.size());
+    assertEquals("name_7", identifiers.intern("name_7"));
+    var last = identifiers.intern("name_99999");
+    assertSame(last, identifiers.intern("name_99999"));
+    var longName = "n".repeat(IdentifierInterner.MAX_LENGTH + 1);
+    assertNotSame(identifiers.intern(longName), identifiers.intern(longName));
+    assertThrows(IllegalArgumentException.class, () -> new IdentifierInterner(0));
+  }
+
+  @Test
+  void sharedAcrossThreads() throws Exception {
+    var identifiers = new IdentifierInterner();
+    var p = new StringBuilder();
+    for (int i = 0; i < 2000; ++i) {
+      p.append("v").append(i % 500).append(" = w").append(i % 7).append('\n');
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      var jobs = new ArrayList<Callable<List<Token>>>();
+      for (int i = 0; i < 16; ++i) {
+        jobs.add(() -> tokens(p.toString(), identifiers));
+      }
+      var results = new ArrayList<List<Token>>();
+      for (Future<List<Token>> f : pool.invokeAll(jobs)) {
+        results.add(f.get());
+      }
+      for (List<Token> tokens : results) {
+        for (int i = 0; i < tokens.size(); ++i) {
+          assertSame(results.get(0).get(i).lexeme, tokens.get(i).lexeme);
+        }
+      }
+      assertEquals(507, identifiers.size());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * CPSC 326, Spring 2025
+ * Incremental lexer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+
+class IncrementalLexerTests {
+
+  /**
+   * Helper to print every token of a buffer, one per line, with the
+   * values of number tokens.
+   */
+  static String print(TokenBuffer tokens) {
+    var out = new StringBuilder();
+    for (int i = 0; i < tokens.size(); ++i) {
+      out.append(tokens.token(i)).append(' ').append(tokens.start(i));
+      if (tokens.type(i) == TokenType.INT_VAL) {
+        out.append(' ').append(tokens.intValue(i));
+      } else if (tokens.type(i) == TokenType.DOUBLE_VAL) {
+        out.append(' ').append(tokens.doubleValue(i));
+      }
+      out.append('\n');
+    }
+    return out.toString();
+  }
+
+  /**
+   * Helper to print a full lex of the source, or its error.
+   */
+  static String full(String src) {
+    try {
+      return print(TokenBuffer.lex(src.toCharArray()));
+    } catch (MyPLException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Helper to print an incremental lex of the edit, or its error.
+   */
+  static String incremental(TokenBuffer old, int offset, int removed, String inserted) {
+    try {
+      return print(IncrementalLexer.relex(old, offset, removed, inserted));
+    } catch (MyPLException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Helper to check that an edit gives the same tokens as a full lex.
+   */
+  static void check(String src, int offset, int removed, String inserted) {
+    var old = TokenBuffer.lex(src.toCharArray());
+    var edited = src.substring(0, offset) + inserted + src.substring(offset + removed);
+    var message = "'" + src + "' at " + offset + " -" + removed + " +'" + inserted + "'";
+    assertEquals(full(edited), incremental(old, offset, removed, inserted), message);
+  }
+
+  @Test
+  void editsInsideAndBetweenTokens() {
+    var p = "x = 12\ny = x + 3.5 # sum\nz = \"hi\"\n";
+    check(p, 0, 0, "a");
+    check(p, 1, 0, "b");
+    check(p, 4, 2, "345");
+    check(p, 6, 1, "");
+    check(p, 6, 0, "\n\n");
+    check(p, 13, 1, "");
+    check(p, 18, 0, "x");
+    check(p, p.length(), 0, "w = 1\n");
+    check(p, 0, p.length(), "");
+    check("", 0, 0, "x");
+  }
+
+  @Test
+  void numberValuesAreRescanned() {
+    var p = "n = 12 + 3.25\nm = 7\n";
+    check(p, 5, 0, "9");
+    check(p, 11, 1, "75");
+    check(p, 6, 0, ".5");
+    check(p, 4, 2, "9223372036854775807");
+    check(p, 17, 1, "0.125");
+  }
+
+  @Test
+  void tokensThatMerge() {
+    check("a b", 1, 1, "");
+    check("< =", 1, 1, "");
+    check("1 .5", 1, 1, "");
+    check("a\r\nb", 2, 1, "");
+    check("a\rb", 2, 0, "\n");
+  }
+
+  @Test
+  void quotesOpenAndCloseStrings() {
+    var p = "s = \"abc\" + t\nu = 1\n";
+    check(p, 4, 0, "\"");
+    check(p, 4, 1, "");
+    check(p, 8, 1, "");
+    check(p, 13, 0, "\"");
+    check(p, 10, 0, "\"x\"");
+    check(p, 2, 0, "#");
+  }
+
+  @Test
+  void randomEditsMatchFullLex() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    var random = new Random(326);
+    var pieces = new String[] {"", "x", "1", ".", "\"", "#", " ", "\n", "\r\n", "<", "=", "!", "and", "\\"};
+    for (int k = 0; k < 2000; ++k) {
+      int offset = random.nextInt(src.length() + 1);
+      int removed = random.nextInt(Math.min(4, src.length() - offset) + 1);
+      check(src, offset, removed, pieces[random.nextInt(pieces.length)]);
+    }
+  }
+
+}
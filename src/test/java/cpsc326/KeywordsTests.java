@@ -0,0 +1,60 @@
+/**
+ * CPSC 326, Spring 2025
+ * Reserved word table tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+
+
+class KeywordsTests {
+
+  /**
+   * Helper to classify a word placed in the middle of a larger array.
+   */
+  TokenType lookup(String word) {
+    char[] src = ("((" + word + "))").toCharArray();
+    return Keywords.lookup(src, 2, word.length());
+  }
+
+  @Test
+  void everyReservedWord() {
+    var words = Map.ofEntries(
+        Map.entry("and", TokenType.AND), Map.entry("or", TokenType.OR),
+        Map.entry("not", TokenType.NOT), Map.entry("struct", TokenType.STRUCT),
+        Map.entry("var", TokenType.VAR), Map.entry("if", TokenType.IF),
+        Map.entry("else", TokenType.ELSE), Map.entry("while", TokenType.WHILE),
+        Map.entry("for", TokenType.FOR), Map.entry("from", TokenType.FROM),
+        Map.entry("to", TokenType.TO), Map.entry("new", TokenType.NEW),
+        Map.entry("true", TokenType.BOOL_VAL), Map.entry("false", TokenType.BOOL_VAL),
+        Map.entry("null", TokenType.NULL_VAL), Map.entry("void", TokenType.VOID_TYPE),
+        Map.entry("int", TokenType.INT_TYPE), Map.entry("double", TokenType.DOUBLE_TYPE),
+        Map.entry("bool", TokenType.BOOL_TYPE), Map.entry("string", TokenType.STRING_TYPE),
+        Map.entry("return", TokenType.RETURN));
+    for (var entry : words.entrySet()) {
+      assertEquals(entry.getValue(), lookup(entry.getKey()), entry.getKey());
+    }
+  }
+
+  @Test
+  void nearMissesAreIdentifiers() {
+    for (var word : new String[] {"x", "i", "in", "iff", "fr", "frum", "fro", "While",
+                                  "whilex", "char", "returns", "nul", "tru", "é"}) {
+      assertEquals(TokenType.ID, lookup(word), word);
+    }
+  }
+
+  @Test
+  void collidingWordsFailTheSearch() {
+    assertEquals(1, Keywords.multiplier(List.of("if")));
+    var e = assertThrows(ExceptionInInitializerError.class,
+                         () -> Keywords.multiplier(List.of("and", "if", "aid", "else")));
+    assertEquals("no perfect hash for the reserved words: \"and\" and \"aid\" collide", e.getMessage());
+  }
+
+}
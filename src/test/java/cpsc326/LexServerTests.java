@@ -0,0 +1,215 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexer daemon tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * LexerTests holds the tokens that come back from a LexServer to the
+ * lexer's. These cases cover the daemon and its wire format: errors
+ * part way through a response, frames split across reads or cut
+ * short, bad frames, and many clients at once.
+ */
+class LexServerTests {
+
+  static Path dir;
+  static LexServer server;
+  static LexClient client;
+
+  /**
+   * Helper to serve the given server on a virtual thread.
+   * @return The server
+   */
+  static LexServer serve(LexServer server) {
+    Thread.ofVirtual().start(() -> {
+      try {
+        server.serve(new PrintStream(OutputStream.nullOutputStream()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return server;
+  }
+
+  @BeforeAll
+  static void start() throws Exception {
+    dir = Files.createTempDirectory("mypl");
+    server = serve(LexServer.unix(dir.resolve("lexer.sock")));
+    client = LexClient.connect(server.address());
+  }
+
+  @AfterAll
+  static void stop() throws Exception {
+    client.close();
+    server.close();
+    Files.delete(dir);
+  }
+
+  /**
+   * Helper to write the response frame the server sends for the given
+   * source.
+   */
+  static byte[] response(String p) throws IOException {
+    char[] source = p.toCharArray();
+    TokenBuffer tokens = new TokenBuffer(source, 0);
+    MyPLException error = null;
+    try {
+      tokens.lexRange(new Lexer(source, 0, source.length), true);
+    } catch (MyPLException e) {
+      error = e;
+    }
+    var bytes = new ByteArrayOutputStream();
+    LexProtocol.writeResponse(new DataOutputStream(bytes), tokens, error);
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Helper to read a response frame for the given source.
+   */
+  static String readResponse(InputStream in, String p) throws IOException {
+    TokenBuffer tokens = new TokenBuffer(p.toCharArray(), 0);
+    MyPLException error = LexProtocol.readResponse(new DataInputStream(in), tokens);
+    return tokens.tokens() + (error == null ? "" : " " + error.code() + " " + error.getMessage());
+  }
+
+  @Test
+  void errorKeepsEarlierTokens() throws Exception {
+    var tokens = new TokenBuffer("x = 1 ?".toCharArray(), 0);
+    var e = assertThrows(MyPLException.class, () -> client.lex(tokens));
+    assertEquals("LEXER_ERROR: [1,7] unrecognized symbol '?'", e.getMessage());
+    assertEquals(LexError.UNRECOGNIZED_SYMBOL, e.code());
+    assertEquals(1, e.line());
+    assertEquals(7, e.column());
+    assertEquals("unrecognized symbol '?'", e.detail());
+    assertEquals(3, tokens.size());
+    assertEquals("INT_VAL \"1\" line 1 column 5", tokens.token(2).toString());
+  }
+
+  @Test
+  void errorsKeepTheirFields() throws Exception {
+    for (var p : new String[] {"\n  s = \"abc\ny", "x = 007", "n = 99999999999999999999", "é = \"\\q\""}) {
+      var expected = assertThrows(MyPLException.class, () -> TokenBuffer.lex(p.toCharArray()));
+      var e = assertThrows(MyPLException.class, () -> client.lex(p.toCharArray()));
+      assertEquals(expected.code(), e.code(), p);
+      assertEquals(expected.line(), e.line(), p);
+      assertEquals(expected.column(), e.column(), p);
+      assertEquals(expected.detail(), e.detail(), p);
+    }
+  }
+
+  @Test
+  void connectionOutlivesErrors() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl")).toCharArray();
+    var expected = TokenBuffer.lex(src).tokens().toString();
+    for (int i = 0; i < 3; ++i) {
+      assertEquals(expected, client.lex(src).tokens().toString());
+      assertThrows(MyPLException.class, () -> client.lex("x = 1 ?".toCharArray()));
+      assertThrows(MyPLException.class, () -> client.lex("\"abc".toCharArray()));
+    }
+    assertEquals(expected, client.lex(src).tokens().toString());
+  }
+
+  @Test
+  void framesSplitAcrossReads() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")) + "é = \"٣\" ?";
+    var request = new ByteArrayOutputStream();
+    LexProtocol.writeRequest(new DataOutputStream(request), p.toCharArray());
+    var in = new DataInputStream(ReaderLexerTests.trickle(new ByteArrayInputStream(request.toByteArray()), -1));
+    assertEquals(p, new String(LexProtocol.readRequest(in)));
+    assertNull(LexProtocol.readRequest(in));
+    var expected = readResponse(new ByteArrayInputStream(response(p)), p);
+    assertTrue(expected.contains(" UNRECOGNIZED_SYMBOL LEXER_ERROR: "), expected);
+    assertEquals(expected, readResponse(ReaderLexerTests.trickle(new ByteArrayInputStream(response(p)), -1), p));
+  }
+
+  @Test
+  void framesCutShort() throws Exception {
+    var p = "x = 1\ny = \"abc";
+    var request = new ByteArrayOutputStream();
+    LexProtocol.writeRequest(new DataOutputStream(request), p.toCharArray());
+    byte[] bytes = request.toByteArray();
+    for (int cut = 1; cut < bytes.length; ++cut) {
+      var in = new DataInputStream(new ByteArrayInputStream(bytes, 0, cut));
+      assertThrows(EOFException.class, () -> LexProtocol.readRequest(in), "cut at " + cut);
+    }
+    bytes = response(p);
+    for (int cut = 0; cut < bytes.length; ++cut) {
+      var in = new ByteArrayInputStream(bytes, 0, cut);
+      assertThrows(EOFException.class, () -> readResponse(in, p), "cut at " + cut);
+    }
+  }
+
+  @Test
+  void badFramesCloseTheConnection() throws Exception {
+    for (int length : new int[] {-1, LexProtocol.MAX_FRAME + 1}) {
+      var in = new DataInputStream(new ByteArrayInputStream(new byte[] {
+        (byte)(length >>> 24), (byte)(length >>> 16), (byte)(length >>> 8), (byte)length}));
+      var e = assertThrows(IOException.class, () -> LexProtocol.readRequest(in));
+      assertEquals("bad frame length " + length, e.getMessage());
+      try (SocketChannel raw = SocketChannel.open(server.address())) {
+        raw.write(ByteBuffer.allocate(4).putInt(0, length));
+        assertEquals(-1, raw.read(ByteBuffer.allocate(1)));
+      }
+    }
+    var bytes = response("x");
+    bytes[5 + 4] = (byte)TokenType.values().length;
+    var e = assertThrows(IOException.class, () -> readResponse(new ByteArrayInputStream(bytes), "x"));
+    assertEquals("bad token type " + TokenType.values().length, e.getMessage());
+    assertEquals(2, client.lex("x".toCharArray()).size());
+  }
+
+  @Test
+  void concurrentTcpClients() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl")).toCharArray();
+    var expected = TokenBuffer.lex(src).tokens().toString();
+    try (LexServer tcp = LexServer.tcp(0)) {
+      serve(tcp);
+      try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+        var results = new ArrayList<Future<String>>();
+        for (int k = 0; k < 16; ++k) {
+          results.add(pool.submit((Callable<String>)() -> {
+            try (LexClient c = LexClient.connect(tcp.address())) {
+              String last = null;
+              for (int i = 0; i < 10; ++i) {
+                last = c.lex(src).tokens().toString();
+              }
+              return last;
+            }
+          }));
+        }
+        for (var result : results) {
+          assertEquals(expected, result.get());
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexeme view tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+
+class LexemeTests {
+
+  @Test
+  void viewsMatchLexemes() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")) + "\"tab\\there\" \"q\\\"\" true false";
+    var tokens = TokenBuffer.lex(p.toCharArray());
+    for (int i = 0; i < tokens.size(); ++i) {
+      String lexeme = tokens.lexeme(i);
+      Lexeme view = tokens.lexemeView(i);
+      assertEquals(lexeme, view.toString());
+      assertEquals(lexeme.hashCode(), view.hashCode(), lexeme);
+      assertEquals(Lexeme.of(lexeme), view);
+      assertTrue(view.contentEquals(lexeme));
+      assertTrue(lexeme.contentEquals(view));
+    }
+    assertSame(tokens.lexemeView(tokens.size() - 1), Lexeme.of(TokenType.EOS, p.toCharArray(), 0, 0));
+  }
+
+  @Test
+  void equalityIsByCharacters() {
+    char[] src = "abc xabc ab".toCharArray();
+    var abc = new Lexeme(src, 0, 3);
+    assertEquals(abc, new Lexeme(src, 5, 3));
+    assertEquals(abc.hashCode(), new Lexeme(src, 5, 3).hashCode());
+    assertNotEquals(abc, new Lexeme(src, 9, 2));
+    assertNotEquals(abc, new Lexeme(src, 4, 3));
+    assertFalse(abc.equals("abc"));
+    assertFalse(abc.contentEquals("abd"));
+    assertTrue(abc.compareTo(new Lexeme(src, 9, 2)) > 0);
+    assertEquals(0, abc.compareTo(Lexeme.of("abc")));
+    assertEquals(0, new Lexeme(src, 0, 0).hashCode());
+  }
+
+  @Test
+  void charactersAndSubsequences() {
+    var view = new Lexeme("x = hello;".toCharArray(), 4, 5);
+    assertEquals(5, view.length());
+    assertEquals('h', view.charAt(0));
+    assertEquals('o', view.charAt(4));
+    assertThrows(IndexOutOfBoundsException.class, () -> view.charAt(5));
+    assertThrows(IndexOutOfBoundsException.class, () -> view.charAt(-1));
+    assertEquals(Lexeme.of("ell"), view.subSequence(1, 4));
+    assertThrows(IndexOutOfBoundsException.class, () -> view.subSequence(2, 6));
+    assertEquals("hello", view.chars().collect(StringBuilder::new, StringBuilder::appendCodePoint,
+                                               StringBuilder::append).toString());
+  }
+
+  @Test
+  void viewsCanKeyMaps() {
+    var p = "x = y + x\ny = f(x, y, z)\n";
+    var tokens = TokenBuffer.lex(p.toCharArray());
+    Map<Lexeme, Integer> counts = new HashMap<>();
+    for (int i = 0; i < tokens.size(); ++i) {
+      if (tokens.type(i) == TokenType.ID) {
+        counts.merge(tokens.lexemeView(i), 1, Integer::sum);
+      }
+    }
+    assertEquals(Map.of(Lexeme.of("x"), 3, Lexeme.of("y"), 3, Lexeme.of("f"), 1, Lexeme.of("z"), 1), counts);
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * CPSC 326, Spring 2025
+ * Flight recorder event tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+class LexerEventsTests {
+
+  /**
+   * Helper to run some lexing inside a recording with every lexer
+   * event enabled and no thresholds, returning the lexer events.
+   */
+  static List<RecordedEvent> record(Runnable lexing) throws Exception {
+    Path file = Files.createTempFile("lexer", ".jfr");
+    try (var recording = new Recording()) {
+      for (String name : List.of("cpsc326.LexSession", "cpsc326.SlowToken", "cpsc326.ReadStall")) {
+        recording.enable(name).withThreshold(Duration.ZERO);
+      }
+      recording.start();
+      lexing.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    try {
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(e -> e.getEventType().getName().startsWith("cpsc326.")).toList();
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Helper to keep the events of one type.
+   */
+  static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+  }
+
+  /**
+   * Helper to lex every token of a lexer.
+   */
+  static void lexAll(Lexer lexer) {
+    while (lexer.nextToken().tokenType != TokenType.EOS) {
+      continue;
+    }
+  }
+
+  @Test
+  void sessionsAndTokens() throws Exception {
+    var p = "x = 1 # c\ny = \"s\"\n".repeat(5000);
+    var events = record(() -> lexAll(new Lexer(new ByteArrayInputStream(p.getBytes()))));
+    var sessions = named(events, "cpsc326.LexSession");
+    assertEquals(1, sessions.size());
+    assertEquals(p.length(), sessions.get(0).getLong("characters"));
+    assertEquals(35001, sessions.get(0).getLong("tokens"));
+    assertNull(sessions.get(0).getString("error"));
+    var tokens = named(events, "cpsc326.SlowToken");
+    assertEquals(35001, tokens.size());
+    assertEquals("COMMENT", tokens.get(3).getString("tokenType"));
+    assertEquals(7, tokens.get(3).getInt("column"));
+    assertEquals(2, tokens.get(3).getInt("length"));
+    assertTrue(named(events, "cpsc326.ReadStall").size() >= 2);
+  }
+
+  @Test
+  void errorsEndTheSession() throws Exception {
+    var p = "x = 1\ny = ?";
+    var events = record(() -> assertThrows(MyPLException.class,
+                                           () -> lexAll(new Lexer(p.toCharArray(), 0, p.length()))));
+    var sessions = named(events, "cpsc326.LexSession");
+    assertEquals(1, sessions.size());
+    assertEquals("[2,5] unrecognized symbol '?'", sessions.get(0).getString("error"));
+    assertEquals(5, sessions.get(0).getLong("tokens"));
+    assertEquals(11, sessions.get(0).getLong("characters"));
+  }
+
+  @Test
+  void recoveredErrorsAreCounted() throws Exception {
+    var p = "x = ? ?";
+    var events = record(() -> lexAll(new Lexer(p.toCharArray(), 0, p.length()).recovering()));
+    var session = named(events, "cpsc326.LexSession").get(0);
+    assertEquals(2, session.getInt("diagnostics"));
+    assertEquals(3, session.getLong("tokens"));
+  }
+
+  @Test
+  void slowReadsAreStalls() throws Exception {
+    Reader slow = new InputStreamReader(new ByteArrayInputStream("x = 1".getBytes())) {
+      @Override
+      public int read(char[] buffer, int offset, int length) throws java.io.IOException {
+        try {
+          Thread.sleep(20);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.read(buffer, offset, length);
+      }
+    };
+    var events = record(() -> lexAll(new Lexer(slow)));
+    var stalls = named(events, "cpsc326.ReadStall");
+    assertEquals(2, stalls.size());
+    assertEquals(5, stalls.get(0).getInt("read"));
+    assertEquals(0, stalls.get(1).getInt("read"));
+    assertTrue(stalls.get(0).getDuration().toMillis() >= 20);
+  }
+
+}
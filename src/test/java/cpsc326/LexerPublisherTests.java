@@ -0,0 +1,232 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexer publisher tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+
+class LexerPublisherTests {
+
+  static ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @AfterAll
+  static void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Subscriber that requests a fixed number of items at a time and
+   * records everything it sees.
+   */
+  static class Recorder<T> implements Flow.Subscriber<T> {
+
+    final int step;
+    final List<T> items = new ArrayList<>();
+    final CompletableFuture<Throwable> done = new CompletableFuture<>();
+    Flow.Subscription subscription;
+    int outstanding = 0;
+
+    Recorder(int step) {
+      this.step = step;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      outstanding = step;
+      subscription.request(step);
+    }
+
+    @Override
+    public void onNext(T item) {
+      assertTrue(outstanding > 0, "item without demand");
+      items.add(item);
+      if (--outstanding == 0) {
+        outstanding = step;
+        subscription.request(step);
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      done.complete(error);
+    }
+
+    @Override
+    public void onComplete() {
+      done.complete(null);
+    }
+
+    Throwable await() throws Exception {
+      return done.get(10, TimeUnit.SECONDS);
+    }
+
+  }
+
+  /**
+   * Helper to print the tokens of a sequential lex, followed by the
+   * error message if there is one.
+   */
+  static String sequential(String p) {
+    return ParallelLexerTests.sequential(p);
+  }
+
+  /**
+   * Helper to print received tokens in the same form.
+   */
+  static String print(List<Token> tokens, Throwable error) {
+    var out = new StringBuilder();
+    for (Token t : tokens) {
+      out.append(t).append('\n');
+    }
+    if (error != null) {
+      out.append(error.getMessage());
+    }
+    return out.toString();
+  }
+
+  @Test
+  void tokensMatchLexer() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(20);
+    for (int step : new int[] {1, 3, 1000}) {
+      var recorder = new Recorder<Token>(step);
+      LexerPublisher.tokens(new Lexer(p.toCharArray(), 0, p.length()), executor).subscribe(recorder);
+      var error = recorder.await();
+      assertEquals(sequential(p), print(recorder.items, error));
+    }
+  }
+
+  @Test
+  void batchesMatchLexer() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(20);
+    var recorder = new Recorder<TokenBatch>(2);
+    LexerPublisher.batches(new Lexer(p.toCharArray(), 0, p.length()), 7, executor).subscribe(recorder);
+    var error = recorder.await();
+    var tokens = new ArrayList<Token>();
+    for (var batch : recorder.items) {
+      assertEquals(batch.isLast() ? batch.size() : 7, batch.size(), "batch size");
+      tokens.addAll(batch.tokens());
+    }
+    assertTrue(recorder.items.get(recorder.items.size() - 1).isLast());
+    assertEquals(sequential(p), print(tokens, error));
+  }
+
+  @Test
+  void errorsFollowEarlierTokens() throws Exception {
+    var p = "x = 1\n".repeat(2000) + "y = ?";
+    var recorder = new Recorder<Token>(5);
+    LexerPublisher.tokens(new Lexer(p.toCharArray(), 0, p.length()), executor).subscribe(recorder);
+    var error = recorder.await();
+    assertInstanceOf(MyPLException.class, error);
+    assertEquals(sequential(p), print(recorder.items, error));
+
+    var batches = new Recorder<TokenBatch>(1);
+    LexerPublisher.batches(new Lexer(p.toCharArray(), 0, p.length()), 1000, executor).subscribe(batches);
+    error = batches.await();
+    var tokens = new ArrayList<Token>();
+    batches.items.forEach(b -> tokens.addAll(b.tokens()));
+    assertEquals(sequential(p), print(tokens, error));
+  }
+
+  @Test
+  void lexerErrorsAreSignalled() throws Exception {
+    var lexed = new int[1];
+    TokenSource failing = () -> {
+      if (++lexed[0] == 50) {
+        throw new AssertionError("lexer bug");
+      }
+      return new Token(TokenType.ID, "x", 1, lexed[0]);
+    };
+    var recorder = new Recorder<Token>(7);
+    LexerPublisher.tokens(failing, executor).subscribe(recorder);
+    var error = recorder.await();
+    assertInstanceOf(AssertionError.class, error);
+    assertEquals(49, recorder.items.size());
+  }
+
+  @Test
+  void oneThreadDeliversWhileThereIsDemand() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(20);
+    var threads = new HashSet<Thread>();
+    var recorder = new Recorder<Token>(Integer.MAX_VALUE) {
+      @Override
+      public void onNext(Token t) {
+        threads.add(Thread.currentThread());
+        super.onNext(t);
+      }
+    };
+    LexerPublisher.tokens(new Lexer(p.toCharArray(), 0, p.length()), executor).subscribe(recorder);
+    assertEquals(null, recorder.await());
+    assertEquals(1, threads.size());
+  }
+
+  @Test
+  void onlyOneSubscriber() throws Exception {
+    var publisher = LexerPublisher.tokens(new Lexer("x".toCharArray(), 0, 1), executor);
+    var first = new Recorder<Token>(10);
+    var second = new Recorder<Token>(10);
+    publisher.subscribe(first);
+    publisher.subscribe(second);
+    assertEquals(null, first.await());
+    assertInstanceOf(IllegalStateException.class, second.await());
+  }
+
+  @Test
+  void cancelStopsLexing() throws Exception {
+    var lexed = new int[1];
+    TokenSource endless = () -> {
+      ++lexed[0];
+      return new Token(TokenType.ID, "x", 1, lexed[0]);
+    };
+    var done = new CompletableFuture<Void>();
+    LexerPublisher.tokens(endless, executor).subscribe(new Flow.Subscriber<Token>() {
+      Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription s) {
+        subscription = s;
+        s.request(10);
+      }
+
+      @Override
+      public void onNext(Token t) {
+        if (t.column == 10) {
+          subscription.cancel();
+          done.complete(null);
+        }
+      }
+
+      @Override
+      public void onError(Throwable e) {
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    });
+    done.get(10, TimeUnit.SECONDS);
+    Thread.sleep(200);
+    int stopped = lexed[0];
+    Thread.sleep(200);
+    assertEquals(stopped, lexed[0]);
+    assertTrue(stopped <= 10 + Flow.defaultBufferSize() + 1, "lexed " + stopped);
+  }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * CPSC 326, Spring 2025
+ * Error-recovering lexer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+class LexerRecoveryTests {
+
+  /**
+   * Helper to lex a source in recovery mode into "TYPE lexeme" strings.
+   */
+  static List<String> tokens(Lexer lexer) {
+    var out = new ArrayList<String>();
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      out.add(t.tokenType + " " + t.lexeme);
+    } while (t.tokenType != TokenType.EOS);
+    return out;
+  }
+
+  /**
+   * Helper to check that the first diagnostic reads like the error the
+   * lexer throws outside recovery mode, and that lexing goes on with
+   * the given tokens.
+   */
+  static void check(String p, LexError kind, String... after) {
+    var thrown = assertThrows(MyPLException.class, () -> tokens(new Lexer(p.toCharArray(), 0, p.length())));
+    Lexer lexer = new Lexer(p.toCharArray(), 0, p.length()).recovering();
+    var tokens = tokens(lexer);
+    assertEquals(1, lexer.diagnostics().size(), p);
+    Diagnostic d = lexer.diagnostics().get(0);
+    assertEquals(kind, d.kind());
+    assertEquals(thrown.getMessage(), d.toString());
+    assertEquals(List.of(after), tokens.subList(tokens.size() - after.length, tokens.size()), p);
+  }
+
+  @Test
+  void eachErrorKindRecovers() {
+    check("x ?? y", LexError.UNRECOGNIZED_SYMBOL, "ID y", "EOS end-of-stream");
+    check("a !b = 1", LexError.EXPECTING_NOT_EQUAL, "ASSIGN =", "INT_VAL 1", "EOS end-of-stream");
+    check("s = \"abc\nt", LexError.NON_TERMINATED_STRING, "ID t", "EOS end-of-stream");
+    check("s = \"abc", LexError.NON_TERMINATED_STRING, "ASSIGN =", "EOS end-of-stream");
+    check("\"a\\qb \\\" c\" + 1", LexError.INVALID_ESCAPE, "PLUS +", "INT_VAL 1", "EOS end-of-stream");
+    check("x = 007abc;", LexError.LEADING_ZERO, "ASSIGN =", "EOS end-of-stream");
+    check("x = 007abc(", LexError.LEADING_ZERO, "LPAREN (", "EOS end-of-stream");
+    check("1.x + 2", LexError.MISSING_DECIMAL_DIGIT, "PLUS +", "INT_VAL 2", "EOS end-of-stream");
+    check("n = 99999999999999999999 + 2", LexError.NUMBER_OUT_OF_RANGE, "PLUS +", "INT_VAL 2", "EOS end-of-stream");
+  }
+
+  @Test
+  void allErrorsAreCollected() {
+    var p = "x = $\ny = \"a\\z\"\nz = 01\r\nw = \"open\r\nv != 1.5 ! 2.\n";
+    Lexer lexer = new Lexer(p.toCharArray(), 0, p.length()).recovering();
+    var tokens = tokens(lexer);
+    var messages = lexer.diagnostics().stream().map(Diagnostic::toString).toList();
+    assertEquals(List.of("LEXER_ERROR: [1,5] unrecognized symbol '$'",
+                         "LEXER_ERROR: [2,5] Invalid escape sequence: \\z",
+                         "LEXER_ERROR: [3,5] leading zero in number",
+                         "LEXER_ERROR: [4,11] non-terminated string",
+                         "LEXER_ERROR: [5,10] expecting !=",
+                         "LEXER_ERROR: [5,14] missing digit after decimal"), messages);
+    assertEquals(List.of("ID x", "ASSIGN =", "ID y", "ASSIGN =", "ID z", "ASSIGN =", "ID w", "ASSIGN =",
+                         "ID v", "NOT_EQUAL !=", "DOUBLE_VAL 1.5", "EOS end-of-stream"), tokens);
+    assertEquals(6, lexer.nextToken().line);
+  }
+
+  @Test
+  void recoveryWorksAcrossWindowRefills() {
+    var p = "x = ?\n".repeat(30000) + "y\n";
+    Lexer lexer = new Lexer(new ByteArrayInputStream(p.getBytes())).recovering();
+    var tokens = tokens(lexer);
+    assertEquals(30000, lexer.diagnostics().size());
+    assertEquals("LEXER_ERROR: [30000,5] unrecognized symbol '?'", lexer.diagnostics().get(29999).toString());
+    assertEquals(60002, tokens.size());
+    assertTrue(lexer.diagnostics().stream().allMatch(d -> d.kind() == LexError.UNRECOGNIZED_SYMBOL));
+  }
+
+  @Test
+  void parallelStreamsRecover() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    var p = ("x = ?\n" + src + "y = \"a\\z\"\nz = 01\n").repeat(20);
+    Lexer sequential = Lexer.of(p).recovering();
+    var expected = sequential.stream().map(t -> t.tokenType + " " + t.lexeme).toList();
+    Lexer parallel = Lexer.of(p).recovering();
+    var tokens = parallel.stream().parallel().map(t -> t.tokenType + " " + t.lexeme).toList();
+    assertEquals(expected, tokens);
+    assertEquals(60, sequential.diagnostics().size());
+    assertEquals(sequential.diagnostics().stream().map(Diagnostic::toString).toList(),
+                 parallel.diagnostics().stream().map(Diagnostic::toString).toList());
+  }
+
+  @Test
+  void validInputHasNoDiagnostics() {
+    var p = "x = 1 # fine\n";
+    Lexer lexer = new Lexer(p.toCharArray(), 0, p.length()).recovering();
+    assertEquals(5, tokens(lexer).size());
+    assertEquals(List.of(), lexer.diagnostics());
+  }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * CPSC 326, Spring 2025
+ * Lexer instrumentation tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+
+class LexerStatsTests {
+
+  /**
+   * Helper to lex every token of a lexer.
+   */
+  static void lexAll(Lexer lexer) {
+    while (lexer.nextToken().tokenType != TokenType.EOS) {
+      continue;
+    }
+  }
+
+  @Test
+  void countsTokensAndCharacters() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(10);
+    var stats = new LexerStats();
+    lexAll(new Lexer(new ByteArrayInputStream(p.getBytes())).instrumented(stats));
+    lexAll(new Lexer(p.toCharArray(), 0, p.length()).instrumented(stats));
+    TokenBuffer tokens = TokenBuffer.lex(p.toCharArray());
+    for (TokenType type : TokenType.values()) {
+      long expected = 0;
+      for (int i = 0; i < tokens.size(); ++i) {
+        expected += tokens.type(i) == type ? 2 : 0;
+      }
+      assertEquals(expected, stats.tokens(type), type.name());
+    }
+    assertEquals(2L * tokens.size(), stats.getTotalTokens());
+    assertEquals(2L * p.length(), stats.getCharactersScanned());
+  }
+
+  @Test
+  void samplesHandlerTimes() {
+    var p = "x = 42 \"s\" # c\n".repeat(LexerStats.SAMPLE_RATE * 100);
+    var stats = new LexerStats();
+    lexAll(new Lexer(p.toCharArray(), 0, p.length()).instrumented(stats));
+    long samples = 0;
+    for (LexerStats.Handler handler : LexerStats.Handler.values()) {
+      samples += stats.samples(handler);
+      assertTrue(stats.samples(handler) > 0, handler.name());
+      assertTrue(stats.estimatedNanos(handler) > 0, handler.name());
+    }
+    // the token after every SAMPLE_RATE-th one is timed, except EOS,
+    // which has no handler
+    assertEquals((stats.getTotalTokens() - 2) / LexerStats.SAMPLE_RATE, samples);
+  }
+
+  @Test
+  void peakLexemeAndErrors() {
+    var p = "x \"" + "s".repeat(1000) + "\" 1.x ? abcdef ?";
+    var stats = new LexerStats();
+    lexAll(new Lexer(p.toCharArray(), 0, p.length()).recovering().instrumented(stats));
+    assertEquals(1000, stats.getPeakLexemeLength());
+    assertEquals(Map.of("UNRECOGNIZED_SYMBOL", 2L, "MISSING_DECIMAL_DIGIT", 1L), stats.getErrorCounts());
+    stats.reset();
+    assertEquals(0, stats.getTotalTokens());
+    assertEquals(0, stats.getPeakLexemeLength());
+    assertEquals(Map.of(), stats.getErrorCounts());
+  }
+
+  @Test
+  void sharedAcrossBatchWorkers() throws Exception {
+    Path dir = Files.createTempDirectory("stats");
+    var files = new ArrayList<Path>();
+    for (int i = 0; i < 20; ++i) {
+      files.add(Files.writeString(dir.resolve("f" + i + ".mypl"), "x = " + i + "\n".repeat(i)));
+    }
+    var stats = new LexerStats();
+    var log = new ByteArrayOutputStream();
+    new BatchLexer(4, dir.resolve("out"), new PrintStream(log), stats).run(files);
+    assertEquals(20, stats.tokens(TokenType.INT_VAL));
+    assertEquals(20, stats.tokens(TokenType.EOS));
+    assertEquals(80, stats.getTotalTokens());
+  }
+
+  @Test
+  void publishedOverJmx() throws Exception {
+    var stats = new LexerStats();
+    ObjectName name = stats.register("test");
+    try {
+      var p = "x = 1 + 2";
+      lexAll(new Lexer(p.toCharArray(), 0, p.length()).instrumented(stats));
+      var server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(6L, server.getAttribute(name, "TotalTokens"));
+      var counts = (TabularData) server.getAttribute(name, "TokenCounts");
+      List<String> types = new ArrayList<>();
+      for (Object row : counts.values()) {
+        types.add((String) ((CompositeData) row).get("key"));
+      }
+      assertTrue(types.containsAll(List.of("ID", "ASSIGN", "INT_VAL", "PLUS", "EOS")), types.toString());
+      server.invoke(name, "reset", null, null);
+      assertEquals(0L, stats.getTotalTokens());
+    } finally {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+  }
+
+}
@@ -8,16 +8,111 @@ package cpsc326;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import org.junit.jupiter.api.Test;
-import java.io.InputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 
 /**
+ * Runs every case against each engine that produces tokens, so they
+ * are all held to the same tokens, positions, and errors: the lexer,
+ * the reference ReaderLexer, and the tokens read back out of a
+ * TokenBuffer, the binary format, and a LexServer. The failure modes
+ * of each transport are tested in its own class.
  */
 class LexerTests {
 
+  static Path dir;
+  static LexServer server;
+  static LexClient client;
+
+  @BeforeAll
+  static void start() throws Exception {
+    dir = Files.createTempDirectory("mypl");
+    server = LexServerTests.serve(LexServer.unix(dir.resolve("lexer.sock")));
+    client = LexClient.connect(server.address());
+  }
+
+  @AfterAll
+  static void stop() throws Exception {
+    client.close();
+    server.close();
+    Files.delete(dir);
+  }
+
+  /**
+   * An engine under test, named for the test report.
+   */
+  record Engine(String name, Function<InputStream, TokenSource> factory) {
+
+    TokenSource lexer(InputStream input) {
+      return factory.apply(input);
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+
+  }
+
+  /**
+   * Something that lexes a whole source into a token buffer.
+   */
+  interface BufferLexer {
+    TokenBuffer lex() throws IOException;
+  }
+
+  static Stream<Engine> engines() {
+    return Stream.of(
+      new Engine("Lexer", Lexer::new),
+      new Engine("ReaderLexer", ReaderLexer::new),
+      new Engine("TokenBuffer", input -> replay(() -> TokenBuffer.lex(input))),
+      new Engine("BinaryTokenReader", input -> {
+        try {
+          return new BinaryTokenReader(new ByteArrayInputStream(BinaryTokenTests.encode(input)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }),
+      new Engine("LexServer",
+                 input -> replay(() -> client.lex(TokenBuffer.readAll(new InputStreamReader(input))))));
+  }
+
+  /**
+   * Helper to read tokens back out of a buffer that is only lexed at
+   * the first nextToken() call, so lexer errors are thrown from there.
+   */
+  static TokenSource replay(BufferLexer lexer) {
+    return new TokenSource() {
+      int next = 0;
+      TokenBuffer tokens = null;
+
+      @Override
+      public Token nextToken() {
+        if (tokens == null) {
+          try {
+            tokens = lexer.lex();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        return tokens.token(Math.min(next++, tokens.size() - 1));
+      }
+    };
+  }
+
   /**
    * Helper to build an input string. 
    */
@@ -33,20 +128,22 @@ class LexerTests {
   //----------------------------------------------------------------------
   // POSITIVE TEST CASES
   
-  @Test
-  void emptyInput() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void emptyInput(Engine engine) {
     var p = "";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.EOS, t.tokenType);
     assertEquals(1, t.line);
     assertEquals(1, t.column);
   }
 
-  @Test
-  void oneSymbol() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void oneSymbol(Engine engine) {
     var p = ".";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.DOT, t.tokenType);
     assertEquals(".", t.lexeme);
@@ -54,10 +151,11 @@ class LexerTests {
     assertEquals(1, t.column);
   }
 
-  @Test
-  void oneSymbolThenEOS() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void oneSymbolThenEOS(Engine engine) {
     var p = "(";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.LPAREN, t.tokenType);
     assertEquals("(", t.lexeme);
@@ -71,10 +169,11 @@ class LexerTests {
     assertEquals(2, t.column);
   }
 
-  @Test
-  void oneCommentThenEOS() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void oneCommentThenEOS(Engine engine) {
     var p = "# a comment";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.COMMENT, t.tokenType);
     assertEquals(" a comment", t.lexeme);
@@ -87,14 +186,15 @@ class LexerTests {
     assertEquals(12, t.column);
   }
   
-  @Test
-  void twoComments() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void twoComments(Engine engine) {
     var p =
       """
       # a comment
       # another comment
       """;
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.COMMENT, t.tokenType);
     assertEquals(" a comment", t.lexeme);
@@ -107,10 +207,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void punctuationSymbols() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void punctuationSymbols(Engine engine) {
     var p = ".:,()[]{}="; 
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     var types = List.of(TokenType.DOT, TokenType.COLON, TokenType.COMMA,
                         TokenType.LPAREN, TokenType.RPAREN, TokenType.LBRACKET,
                         TokenType.RBRACKET, TokenType.LBRACE,
@@ -126,10 +227,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
   }
 
-  @Test
-  void arithmeticSymbols() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void arithmeticSymbols(Engine engine) {
     var p = "+-*/"; 
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     var types = List.of(TokenType.PLUS, TokenType.MINUS,
                         TokenType.TIMES, TokenType.DIVIDE);
     var lexemes = List.of("+", "-", "*", "/");
@@ -143,10 +245,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
   }
 
-  @Test
-  void comparatorSymbols() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void comparatorSymbols(Engine engine) {
     var p = "<><=>=!=";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.LESS, t.tokenType);
     assertEquals("<", t.lexeme);
@@ -175,10 +278,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
   }
 
-  @Test
-  void oneSymbolPerline() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void oneSymbolPerline(Engine engine) {
     var p = ",\n.\n:\n("; 
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.COMMA, t.tokenType);
     assertEquals(",", t.lexeme);
@@ -202,10 +306,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void oneCharacterStrings() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void oneCharacterStrings(Engine engine) {
     var p = "\"a\" \"?\" \"<\""; 
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.STRING_VAL, t.tokenType);
     assertEquals("a", t.lexeme);
@@ -224,10 +329,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void multiCharacterStrings() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void multiCharacterStrings(Engine engine) {
     var p = "\"abc\" \"><!=\" \"foo bar baz\""; 
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.STRING_VAL, t.tokenType);
     assertEquals("abc", t.lexeme);
@@ -246,10 +352,31 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void basicIntLiterals() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void longStrings(Engine engine) {
+    var plain = "abc def ".repeat(20000);
+    var escaped = "x".repeat((1 << 16) - 3) + "\\\"" + "y".repeat(10) + "\\n";
+    var p = "\"" + plain + "\" \"" + escaped + "\" z";
+    TokenSource lexer = engine.lexer(istream(p));
+    Token t = lexer.nextToken();
+    assertEquals(TokenType.STRING_VAL, t.tokenType);
+    assertEquals(plain, t.lexeme);
+    t = lexer.nextToken();
+    assertEquals(TokenType.STRING_VAL, t.tokenType);
+    assertEquals("x".repeat((1 << 16) - 3) + "\"" + "y".repeat(10) + "\n", t.lexeme);
+    assertEquals(plain.length() + 4, t.column);
+    t = lexer.nextToken();
+    assertEquals(TokenType.ID, t.tokenType);
+    assertEquals(plain.length() + escaped.length() + 7, t.column);
+    assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void basicIntLiterals(Engine engine) {
     var p = "0 42 10 1 9876543210";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.INT_VAL, t.tokenType);
     assertEquals("0", t.lexeme);
@@ -278,10 +405,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void basicDoubleLiterals() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void basicDoubleLiterals(Engine engine) {
     var p = "0.0 0.00 3.14 321.1230";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.DOUBLE_VAL, t.tokenType);
     assertEquals("0.0", t.lexeme);
@@ -305,10 +433,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void specialLiterals() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void specialLiterals(Engine engine) {
     var p = "true false null";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.BOOL_VAL, t.tokenType);
     assertEquals("true", t.lexeme);
@@ -327,10 +456,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void primiteTypeNames() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void primiteTypeNames(Engine engine) {
     var p = "int double string bool void";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.INT_TYPE, t.tokenType);
     assertEquals("int", t.lexeme);
@@ -359,10 +489,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
   
-  @Test
-  void logicalOperators() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void logicalOperators(Engine engine) {
     var p = "and or not";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.AND, t.tokenType);
     assertEquals("and", t.lexeme);
@@ -381,10 +512,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void ifStatementReservedWords() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void ifStatementReservedWords(Engine engine) {
     var p = "if else";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.IF, t.tokenType);
     assertEquals("if", t.lexeme);
@@ -398,10 +530,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
   
-  @Test
-  void loopStatementReservedWords() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void loopStatementReservedWords(Engine engine) {
     var p = "while for from to";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.WHILE, t.tokenType);
     assertEquals("while", t.lexeme);
@@ -425,10 +558,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void otherReservedWords() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void otherReservedWords(Engine engine) {
     var p = "return struct new";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.RETURN, t.tokenType);
     assertEquals("return", t.lexeme);
@@ -447,10 +581,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);        
   }
 
-  @Test
-  void basicIdentifiers() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void basicIdentifiers(Engine engine) {
     var p = "x xs f0_0 foo_bar foo_bar_baz quix__";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.ID, t.tokenType);
     assertEquals("x", t.lexeme);
@@ -484,10 +619,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);        
   }
 
-  @Test
-  void tokensWithComments() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void tokensWithComments(Engine engine) {
     var p = "x < 1 # test 1\nif 3.14";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.ID, t.tokenType);
     assertEquals("x", t.lexeme);
@@ -521,10 +657,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
   
-  @Test
-  void tokensWithNoSpaces() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void tokensWithNoSpaces(Engine engine) {
     var p = "for(int x)ify=4+";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.FOR, t.tokenType);
     assertEquals("for", t.lexeme);
@@ -573,10 +710,11 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
 
-  @Test
-  void numbersWithNoSpaces() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void numbersWithNoSpaces(Engine engine) {
     var p = "32.1.42 .0.0";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Token t = lexer.nextToken();
     assertEquals(TokenType.DOUBLE_VAL, t.tokenType);
     assertEquals("32.1", t.lexeme);
@@ -605,58 +743,119 @@ class LexerTests {
     assertEquals(TokenType.EOS, lexer.nextToken().tokenType);    
   }
   
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void inputLongerThanOneWindow(Engine engine) throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    var p = new StringBuilder();
+    for (int i = 0; p.length() < 300000; ++i) {
+      p.append(i % 2 == 0 ? src : src.replace("\n", "\r\n"));
+    }
+    TokenSource lexer = engine.lexer(istream(p.toString()));
+    TokenSource reference = new ReaderLexer(istream(p.toString()));
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      assertEquals(reference.nextToken().toString(), t.toString());
+    } while (t.tokenType != TokenType.EOS);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void lexemesLongerThanOneWindow(Engine engine) {
+    var body = "ab".repeat(70000);
+    var p = "#" + body + "\n\"" + body + "\" " + body;
+    TokenSource lexer = engine.lexer(istream(p));
+    Token t = lexer.nextToken();
+    assertEquals(TokenType.COMMENT, t.tokenType);
+    assertEquals(body, t.lexeme);
+    t = lexer.nextToken();
+    assertEquals(TokenType.STRING_VAL, t.tokenType);
+    assertEquals(body, t.lexeme);
+    assertEquals(2, t.line);
+    t = lexer.nextToken();
+    assertEquals(TokenType.ID, t.tokenType);
+    assertEquals(body, t.lexeme);
+    assertEquals(140004, t.column);
+    assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void unicodeLettersAndDigits(Engine engine) {
+    var p = "été\u2003x_\u0663 \u0663\u0664";
+    TokenSource lexer = engine.lexer(istream(p));
+    Token t = lexer.nextToken();
+    assertEquals(TokenType.ID, t.tokenType);
+    assertEquals("été", t.lexeme);
+    t = lexer.nextToken();
+    assertEquals(TokenType.ID, t.tokenType);
+    assertEquals("x_\u0663", t.lexeme);
+    assertEquals(5, t.column);
+    t = lexer.nextToken();
+    assertEquals(TokenType.INT_VAL, t.tokenType);
+    assertEquals("\u0663\u0664", t.lexeme);
+    assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
+  }
+
   //----------------------------------------------------------------------
   // NEGATIVE TEST CASES
 
-  @Test
-  void nonTerminatedString() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void nonTerminatedString(Engine engine) {
     var p = "\"hello \nworld\"";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
     var m = "LEXER_ERROR: [1,8] non-terminated string";
     assertEquals(m, e.getMessage());
   }
 
-  @Test
-  void invalidSymbolCombination() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void invalidSymbolCombination(Engine engine) {
     var p = "!>";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
     var m = "LEXER_ERROR: [1,1] expecting !=";
     assertEquals(m, e.getMessage());
   }
 
-  @Test
-  void missingDoubleDigit() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void missingDoubleDigit(Engine engine) {
     var p = "32.a";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
     var m = "LEXER_ERROR: [1,4] missing digit after decimal";
     assertEquals(m, e.getMessage());
   }
 
-  @Test
-  void leadingZero() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void leadingZero(Engine engine) {
     var p = "02";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
     var m = "LEXER_ERROR: [1,1] leading zero in number";
     assertEquals(m, e.getMessage());
   }
 
-  @Test
-  void invalidSymbol() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void invalidSymbol(Engine engine) {
     var p = "?";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
     var m = "LEXER_ERROR: [1,1] unrecognized symbol '?'";
     assertEquals(m, e.getMessage());
   }
   
-  @Test
-  void invalidID() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void invalidID(Engine engine) {
     var p = "_xs";
-    Lexer lexer = new Lexer(istream(p));
+    TokenSource lexer = engine.lexer(istream(p));
     Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
     var m = "LEXER_ERROR: [1,1] unrecognized symbol '_'";
     assertEquals(m, e.getMessage());
@@ -675,10 +874,11 @@ class LexerTests {
   // 
   //----------------------------------------------------------------------  
 
-  @Test
-  void combinedSymbolsAndLiterals() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void combinedSymbolsAndLiterals(Engine engine) {
       var p = "if (x <= 10.5) and not flag return true";
-      Lexer lexer = new Lexer(istream(p));
+      TokenSource lexer = engine.lexer(istream(p));
       var types = List.of(TokenType.IF, TokenType.LPAREN, TokenType.ID, TokenType.LESS_EQ,
               TokenType.DOUBLE_VAL, TokenType.RPAREN, TokenType.AND, TokenType.NOT,
               TokenType.ID,  TokenType.RETURN, TokenType.BOOL_VAL);
@@ -693,10 +893,11 @@ class LexerTests {
       assertEquals(TokenType.EOS, lexer.nextToken().tokenType);
   }
 
-  @Test
-  void nestedStructuresAndStrings() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void nestedStructuresAndStrings(Engine engine) {
       var p = "struct Person { string name int age } p = new Person() p.name = \"John Doe\""; 
-      Lexer lexer = new Lexer(istream(p));
+      TokenSource lexer = engine.lexer(istream(p));
       var types = List.of(TokenType.STRUCT, TokenType.ID, TokenType.LBRACE, TokenType.STRING_TYPE, TokenType.ID, TokenType.INT_TYPE, TokenType.ID, TokenType.RBRACE, TokenType.ID, TokenType.ASSIGN, TokenType.NEW, TokenType.ID, TokenType.LPAREN, TokenType.RPAREN, TokenType.ID, TokenType.DOT, TokenType.ID, TokenType.ASSIGN, TokenType.STRING_VAL); 
       var lexemes = List.of("struct", "Person", "{", "string", "name", "int", "age", "}", "p", "=", "new", "Person", "(", ")", "p", ".", "name", "=", "John Doe"); 
       for (int i = 0; i < types.size(); ++i) {
@@ -710,10 +911,11 @@ class LexerTests {
   }
 
 
-  @Test
-  void complexArithmeticAndComparisons() {
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("engines")
+  void complexArithmeticAndComparisons(Engine engine) {
       var p = "result = (x * 2 + y / 4) >= z and (a < b or c != d)"; 
-      Lexer lexer = new Lexer(istream(p));
+      TokenSource lexer = engine.lexer(istream(p));
       // Define expected token types and lexemes
       var types = List.of(TokenType.ID, TokenType.ASSIGN, TokenType.LPAREN, TokenType.ID, TokenType.TIMES, TokenType.INT_VAL, TokenType.PLUS, TokenType.ID, TokenType.DIVIDE, TokenType.INT_VAL, TokenType.RPAREN, TokenType.GREATER_EQ, TokenType.ID, TokenType.AND, TokenType.LPAREN, TokenType.ID, TokenType.LESS, TokenType.ID, TokenType.OR, TokenType.ID, TokenType.NOT_EQUAL, TokenType.ID, TokenType.RPAREN); // Removed SEMICOLON
       var lexemes = List.of("result", "=", "(", "x", "*", "2", "+", "y", "/", "4", ")", ">=", "z", "and", "(", "a", "<", "b", "or", "c", "!=", "d", ")"); 
@@ -730,19 +932,21 @@ class LexerTests {
 
     // NEW NEGATIVE TEST CASES
 
-    @Test
-    void unrecognizedSymbol1() {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    void unrecognizedSymbol1(Engine engine) {
         var p = "@";
-        Lexer lexer = new Lexer(istream(p));
+        TokenSource lexer = engine.lexer(istream(p));
         Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
         var m = "LEXER_ERROR: [1,1] unrecognized symbol '@'";
         assertEquals(m, e.getMessage());
     }
 
-    @Test
-    void unrecognizedSymbol2() {
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("engines")
+    void unrecognizedSymbol2(Engine engine) {
         var p = "$";
-        Lexer lexer = new Lexer(istream(p));
+        TokenSource lexer = engine.lexer(istream(p));
         Exception e = assertThrows(MyPLException.class, () -> lexer.nextToken());
         var m = "LEXER_ERROR: [1,1] unrecognized symbol '$'";
         assertEquals(m, e.getMessage());
@@ -0,0 +1,84 @@
+/**
+ * CPSC 326, Spring 2025
+ * Memory-mapped reader tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+class MappedFileReaderTests {
+
+  @TempDir
+  Path dir;
+
+  /**
+   * Helper to read every character out of a reader using the given
+   * chunk size.
+   */
+  String drain(Reader reader, int chunk) throws Exception {
+    var out = new StringBuilder();
+    char[] buf = new char[chunk];
+    int n;
+    while ((n = reader.read(buf, 0, chunk)) >= 0) {
+      out.append(buf, 0, n);
+    }
+    reader.close();
+    return out.toString();
+  }
+
+  @Test
+  void decodesLikeInputStreamReader() throws Exception {
+    byte[] bytes = ("# café ☃ 😀\nvar s = \"naïve\"\n"
+        + "été = 1\n").getBytes(StandardCharsets.UTF_8);
+    // append a truncated and a stray continuation sequence
+    byte[] bad = {'"', (byte)0xe2, (byte)0x98, '"', ' ', (byte)0x80, '\n'};
+    byte[] all = new byte[bytes.length * 3 + bad.length];
+    for (int i = 0; i < 3; ++i) {
+      System.arraycopy(bytes, 0, all, i * bytes.length, bytes.length);
+    }
+    System.arraycopy(bad, 0, all, bytes.length * 3, bad.length);
+    Path file = dir.resolve("mixed.mypl");
+    Files.write(file, all);
+    var expected = drain(new InputStreamReader(new ByteArrayInputStream(all),
+        StandardCharsets.UTF_8), 64);
+    for (int region : new int[] {4, 5, 6, 7, 11, 16, 1024}) {
+      for (int chunk : new int[] {1, 2, 3, 1024}) {
+        assertEquals(expected, drain(new MappedFileReader(file, region), chunk));
+      }
+    }
+  }
+
+  @Test
+  void emptyFile() throws Exception {
+    Path file = dir.resolve("empty.mypl");
+    Files.write(file, new byte[0]);
+    Lexer lexer = new Lexer(new MappedFileReader(file));
+    Token t = lexer.nextToken();
+    assertEquals(TokenType.EOS, t.tokenType);
+    assertEquals(1, t.line);
+    assertEquals(1, t.column);
+  }
+
+  @Test
+  void sameTokensAsStreamInput() throws Exception {
+    Path file = Path.of("examples/hw1_tokens.mypl");
+    Lexer mapped = new Lexer(new MappedFileReader(file, 16));
+    Lexer streamed = new Lexer(Files.newInputStream(file));
+    Token t = null;
+    do {
+      t = mapped.nextToken();
+      assertEquals(streamed.nextToken().toString(), t.toString());
+    } while (t.tokenType != TokenType.EOS);
+  }
+
+}
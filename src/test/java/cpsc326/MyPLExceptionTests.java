@@ -0,0 +1,47 @@
+/**
+ * CPSC 326, Spring 2025
+ * MyPL exception tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+
+class MyPLExceptionTests {
+
+  @Test
+  void lexerErrorsAreStructured() {
+    var p = "x = 1\ny = ?";
+    var e = assertThrows(MyPLException.class, () -> TokenBuffer.lex(p.toCharArray()));
+    assertEquals(MyPLException.ErrorType.LEXER_ERROR, e.type());
+    assertEquals(LexError.UNRECOGNIZED_SYMBOL, e.code());
+    assertEquals("unrecognized symbol '?'", e.detail());
+    assertEquals(2, e.line());
+    assertEquals(5, e.column());
+    assertEquals("LEXER_ERROR: [2,5] unrecognized symbol '?'", e.getMessage());
+  }
+
+  @Test
+  void noStackTraceIsCaptured() {
+    var e = assertThrows(MyPLException.class, () -> MyPLException.lexerError(LexError.LEADING_ZERO, "x", 1, 1));
+    assertEquals(0, e.getStackTrace().length);
+    e.addSuppressed(new RuntimeException());
+    assertEquals(0, e.getSuppressed().length);
+  }
+
+  @Test
+  void unstructuredErrorsKeepTheirMessage() {
+    var e = assertThrows(MyPLException.class, () -> MyPLException.vmError("stack overflow"));
+    assertEquals("VM_ERROR: stack overflow", e.getMessage());
+    assertEquals(MyPLException.ErrorType.VM_ERROR, e.type());
+    assertNull(e.code());
+    assertEquals(0, e.line());
+    e = assertThrows(MyPLException.class, () -> MyPLException.lexerError("[3,4] old style"));
+    assertEquals("LEXER_ERROR: [3,4] old style", e.getMessage());
+  }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * CPSC 326, Spring 2025
+ * Command line tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+class MyPLTests {
+
+  /**
+   * Helper to start mypl in a new JVM with the given arguments.
+   */
+  static Process start(String... args) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add("cpsc326.MyPL");
+    command.addAll(List.of(args));
+    return new ProcessBuilder(command).redirectErrorStream(true).start();
+  }
+
+  /**
+   * Helper to run mypl in a new JVM on the given standard input,
+   * returning its standard output and error interleaved in the order
+   * they were written.
+   */
+  static String run(String input, String... args) throws IOException, InterruptedException {
+    Process process = start(args);
+    try (var stdin = process.getOutputStream()) {
+      stdin.write(input.getBytes(StandardCharsets.UTF_8));
+    }
+    String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    process.waitFor();
+    return output;
+  }
+
+  @Test
+  void tokensComeBeforeTheError() throws Exception {
+    String expected = """
+        ID "x" line 1 column 1
+        ASSIGN "=" line 1 column 3
+        INT_VAL "1" line 1 column 5
+        ID "y" line 2 column 1
+        ASSIGN "=" line 2 column 3
+        LEXER_ERROR: [2,9] non-terminated string
+        """;
+    assertEquals(expected, run("x = 1\ny = \"abc\n", "-m", "LEX"));
+    assertEquals(expected, run("x = 1\ny = \"abc\n", "-m", "LEX", "--stats").substring(0, expected.length()));
+  }
+
+  @Test
+  void nonPositiveLimitsAreUsageErrors() throws Exception {
+    for (String option : new String[] {"--max-lexeme", "--window"}) {
+      for (String value : new String[] {"0", "-5"}) {
+        String output = run("x", "-m", "LEX", option + "=" + value).replaceAll("\\s+", " ");
+        assertTrue(output.contains("mypl: error: argument " + option + ": invalid choice: '" + value + "'"), output);
+        assertFalse(output.contains("Exception"), output);
+      }
+    }
+    assertTrue(run("x", "-m", "LEX", "--max-lexeme", "1", "--window", "1").startsWith("ID \"x\""));
+  }
+
+  @Test
+  void batchWritesTheChosenFormat(@TempDir Path dir) throws Exception {
+    Files.writeString(dir.resolve("a.mypl"), "x = 1\n");
+    Files.writeString(dir.resolve("b.mypl"), "y = 2\n");
+    run("", "-m", "LEX", "--format", "BINARY", dir.toString());
+    for (String name : new String[] {"a.out", "b.out"}) {
+      var reader = new BinaryTokenReader(Files.newInputStream(dir.resolve(name)));
+      assertEquals(TokenType.ID, reader.nextToken().tokenType);
+    }
+  }
+
+  @Test
+  void batchAppliesLexerOptions(@TempDir Path dir) throws Exception {
+    Files.writeString(dir.resolve("a.mypl"), "x = ? 1 # one\n");
+    Files.writeString(dir.resolve("b.mypl"), "y = 2\n");
+    String output = run("", "-m", "LEX", "--recover", dir.toString());
+    assertTrue(output.contains("a.mypl: LEXER_ERROR: [1,5] unrecognized symbol '?'"), output);
+    assertTrue(Files.readString(dir.resolve("a.out")).contains("INT_VAL \"1\""));
+    run("", "-m", "LEX", "--recover", "--skip-comments", dir.toString());
+    assertFalse(Files.readString(dir.resolve("a.out")).contains("COMMENT"));
+    Files.writeString(dir.resolve("c.mypl"), "name = 1\n");
+    output = run("", "-m", "LEX", "--max-lexeme", "3", "--window", "2", dir.toString());
+    assertTrue(output.contains("c.mypl: LEXER_ERROR: [1,1] lexeme longer than 3 characters"), output);
+  }
+
+  @Test
+  void statsCannotBeCollectedInParallel() throws Exception {
+    String output = run("x", "-m", "LEX", "--stats", "--parallel").replaceAll("\\s+", " ");
+    assertTrue(output.contains("mypl: error: argument --parallel: not allowed with argument --stats"), output);
+    assertFalse(output.contains("0 tokens"), output);
+  }
+
+  @Test
+  void outOfRangePortsAreUsageErrors() throws Exception {
+    for (String port : new String[] {"-1", "65536"}) {
+      String output = run("", "--server", "--port", port).replaceAll("\\s+", " ");
+      assertTrue(output.contains("mypl: error: argument --port: invalid choice: '" + port + "'"), output);
+      assertFalse(output.contains("Exception"), output);
+    }
+  }
+
+  @Test
+  void serverClosesOnShutdown(@TempDir Path dir) throws Exception {
+    Path socket = dir.resolve("lexer.sock");
+    Process server = start("--server", "--socket", socket.toString());
+    var output = new BufferedReader(new InputStreamReader(server.getInputStream()));
+    assertEquals("mypl: listening on " + socket, output.readLine());
+    try (LexClient client = LexClient.connect(UnixDomainSocketAddress.of(socket))) {
+      assertEquals(2, client.lex("x".toCharArray()).size());
+    }
+    assertTrue(Files.exists(socket));
+    server.destroy();
+    assertTrue(server.waitFor(10, TimeUnit.SECONDS));
+    assertFalse(Files.exists(socket));
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * CPSC 326, Spring 2025
+ * Number value tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+class NumberTokenTests {
+
+  /**
+   * Helper to lex a single number token with nextToken().
+   */
+  static NumberToken number(String p) {
+    Lexer lexer = new Lexer(new ByteArrayInputStream(p.getBytes()));
+    return assertInstanceOf(NumberToken.class, lexer.nextToken());
+  }
+
+  @Test
+  void intValues() {
+    assertEquals(0, number("0").intValue());
+    assertEquals(42, number("42").intValue());
+    assertEquals(Long.MAX_VALUE, number("9223372036854775807").intValue());
+    assertEquals("9223372036854775807", number("9223372036854775807").lexeme);
+  }
+
+  @Test
+  void doubleValues() {
+    assertEquals(0.0, number("0.0").doubleValue());
+    assertEquals(3.14, number("3.14").doubleValue());
+    assertEquals(0.1, number("0.1").doubleValue());
+    assertEquals(12345678901234567890.5, number("12345678901234567890.5").doubleValue());
+    assertEquals(1.0000000000000000000000001, number("1.0000000000000000000000001").doubleValue());
+    assertEquals(Double.MAX_VALUE, number(String.format("%.1f", Double.MAX_VALUE)).doubleValue());
+  }
+
+  @Test
+  void valuesMatchParsing() {
+    var random = new Random(326);
+    var p = new StringBuilder();
+    var lexemes = new ArrayList<String>();
+    for (int i = 0; i < 20000; ++i) {
+      String lexeme = switch (random.nextInt(4)) {
+        case 0 -> Long.toString(random.nextLong() >>> 1);
+        case 1 -> Integer.toString(random.nextInt(1000));
+        case 2 -> random.nextInt(100000) + "." + random.nextInt(1000);
+        default -> new java.math.BigDecimal(random.nextDouble() * Math.pow(10, random.nextInt(40)))
+            .toPlainString().replaceAll("^([0-9]+)$", "$1.0");
+      };
+      lexemes.add(lexeme);
+      p.append(lexeme).append(i % 10 == 9 ? "\n" : " ");
+    }
+    TokenBuffer tokens = TokenBuffer.lex(p.toString().toCharArray());
+    for (int i = 0; i < lexemes.size(); ++i) {
+      String lexeme = lexemes.get(i);
+      if (tokens.type(i) == TokenType.INT_VAL) {
+        assertEquals(Long.parseLong(lexeme), tokens.intValue(i), lexeme);
+        assertEquals(Long.parseLong(lexeme), ((NumberToken) tokens.token(i)).intValue(), lexeme);
+      } else {
+        assertEquals(Double.parseDouble(lexeme), tokens.doubleValue(i), lexeme);
+      }
+    }
+  }
+
+  @Test
+  void nonAsciiDigits() {
+    assertEquals(123, number("١٢٣").intValue());
+    assertEquals(1.5, number("١.٥").doubleValue());
+    var p = "x = ٤٢";
+    TokenBuffer tokens = new TokenBuffer(p.toCharArray(), 0);
+    tokens.add(TokenType.INT_VAL, 4, 2, 1, 5);
+    assertEquals(42, tokens.intValue(0));
+  }
+
+  @Test
+  void overflowIsALexicalError() {
+    assertThrows(MyPLException.class, () -> number("9223372036854775808"));
+    var p = "x = 9223372036854775808";
+    var e = assertThrows(MyPLException.class, () -> TokenBuffer.lex(p.toCharArray()));
+    assertEquals(LexError.NUMBER_OUT_OF_RANGE, e.code());
+    assertEquals("LEXER_ERROR: [1,5] integer literal out of range", e.getMessage());
+    var big = "1" + "0".repeat(400) + ".5";
+    e = assertThrows(MyPLException.class, () -> TokenBuffer.lex(big.toCharArray()));
+    assertEquals("LEXER_ERROR: [1,1] double literal out of range", e.getMessage());
+  }
+
+  @Test
+  void otherTokensAreNotNumbers() {
+    var p = "x \"1\" 2";
+    List<Token> tokens = TokenBuffer.lex(p.toCharArray()).tokens();
+    assertEquals(Token.class, tokens.get(0).getClass());
+    assertEquals(Token.class, tokens.get(1).getClass());
+    assertEquals(NumberToken.class, tokens.get(2).getClass());
+  }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * CPSC 326, Spring 2025
+ * Parallel lexer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+
+class ParallelLexerTests {
+
+  static ForkJoinPool pool = new ForkJoinPool(4);
+
+  @AfterAll
+  static void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Helper to build a program mixing LF, CRLF, and CR line endings.
+   */
+  static String program() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    return src + "\n" + src.replace("\n", "\r\n") + "\r\n" + src.replace("\n", "\r") + "\n" + src;
+  }
+
+  /**
+   * Helper to print every token of a sequential lex, followed by the
+   * error message if there is one.
+   */
+  static String sequential(String p) {
+    var out = new StringBuilder();
+    Lexer lexer = new Lexer(p.toCharArray(), 0, p.length());
+    try {
+      Token t = null;
+      do {
+        t = lexer.nextToken();
+        out.append(t).append('\n');
+      } while (t.tokenType != TokenType.EOS);
+    } catch (MyPLException e) {
+      out.append(e.getMessage());
+    }
+    return out.toString();
+  }
+
+  /**
+   * Helper to print the result of a parallel lex in the same form.
+   */
+  static String parallel(String p, int[] bounds) {
+    var out = new StringBuilder();
+    TokenBuffer tokens = new TokenBuffer(p.toCharArray(), 0);
+    try {
+      ParallelLexer.lex(tokens, pool, bounds);
+    } catch (MyPLException e) {
+      for (Token t : tokens.tokens()) {
+        out.append(t).append('\n');
+      }
+      return out.append(e.getMessage()).toString();
+    }
+    for (Token t : tokens.tokens()) {
+      out.append(t).append('\n');
+    }
+    return out.toString();
+  }
+
+  @Test
+  void newlineBoundariesMatchSequential() throws Exception {
+    var p = program();
+    var expected = sequential(p);
+    for (int size : new int[] {1, 2, 3, 5, 17, 64, 1000, 100000}) {
+      assertEquals(expected, parallel(p, ParallelLexer.boundaries(p.toCharArray(), size)), "size " + size);
+    }
+  }
+
+  @Test
+  void boundariesInsideTokensAreRestarted() throws Exception {
+    var p = program();
+    var expected = sequential(p);
+    for (int step = 1; step < 14; ++step) {
+      int n = step;
+      int[] bounds = IntStream.concat(IntStream.iterate(0, i -> i < p.length(), i -> i + n),
+                                      IntStream.of(p.length())).toArray();
+      assertEquals(expected, parallel(p, bounds), "step " + step);
+    }
+  }
+
+  @Test
+  void errorsMatchSequential() throws Exception {
+    var base = program();
+    for (var bad : new String[] {"?", "\"open\n", "00", "1.x", "!<", "\"\\q\""}) {
+      var p = base + "\n x = 1 " + bad + "\n" + base;
+      var expected = sequential(p);
+      assertEquals(expected, parallel(p, ParallelLexer.boundaries(p.toCharArray(), 50)), bad);
+    }
+  }
+
+  @Test
+  void emptyAndSmallSources() {
+    assertEquals(sequential(""), parallel("", new int[] {0, 0}));
+    TokenBuffer tokens = ParallelLexer.lex("x = 1\n".toCharArray());
+    assertEquals(4, tokens.size());
+    assertEquals("EOS \"end-of-stream\" line 2 column 1", tokens.token(3).toString());
+  }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * CPSC 326, Spring 2025
+ * Compares the lexer against the reference reader engine.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+
+/**
+ * LexerTests holds both engines to the same tokens and positions.
+ * These cases cover what the lexer's window adds over the reader:
+ * every character class, streams that hand out a byte at a time, and
+ * streams that fail part way through.
+ */
+class ReaderLexerTests {
+
+  /**
+   * Helper to build an input stream over a string.
+   */
+  static InputStream istream(String str) {
+    return new ByteArrayInputStream(str.getBytes());
+  }
+
+  /**
+   * Helper to build an input stream that hands out one byte per read
+   * and fails once the given number of bytes have been read.
+   */
+  static InputStream trickle(InputStream in, int failAfter) {
+    return new FilterInputStream(in) {
+      int count = 0;
+
+      @Override
+      public int read() throws IOException {
+        if (count++ == failAfter) {
+          throw new IOException("disk on fire");
+        }
+        return super.read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+          return 0;
+        }
+        int c = read();
+        if (c < 0) {
+          return -1;
+        }
+        b[off] = (byte)c;
+        return 1;
+      }
+
+      @Override
+      public int available() {
+        return 0;
+      }
+    };
+  }
+
+  /**
+   * Helper to lex a program to its printed tokens or error message.
+   */
+  static String lexAll(TokenSource lexer) {
+    var out = new StringBuilder();
+    try {
+      Token t = null;
+      do {
+        t = lexer.nextToken();
+        out.append(t).append('\n');
+      } while (t.tokenType != TokenType.EOS);
+    } catch (MyPLException e) {
+      out.append(e.getMessage());
+    }
+    return out.toString();
+  }
+
+  @Test
+  void everyCharacterClassifiedAlike() {
+    for (char ch = 0; ch < Character.MIN_SURROGATE; ++ch) {
+      var p = "x" + ch + "1 " + ch + "2";
+      assertEquals(lexAll(new ReaderLexer(istream(p))),
+                   lexAll(new Lexer(p.toCharArray(), 0, p.length())), "char " + (int)ch);
+    }
+  }
+
+  @Test
+  void oneByteReadsGiveTheSameTokens() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(20) + "été = \"٣\" # ✓\n";
+    var expected = lexAll(new ReaderLexer(istream(p)));
+    assertEquals(expected, lexAll(new Lexer(trickle(istream(p), -1))));
+    assertEquals(expected, lexAll(new Lexer(new InputStreamReader(trickle(istream(p), -1)), 16)));
+  }
+
+  @Test
+  void failedReadsAreLexerErrors() throws Exception {
+    var p = Files.readString(Path.of("examples/hw1_tokens.mypl")).repeat(20);
+    var expected = LexerRecoveryTests.tokens(new Lexer(istream(p)));
+    for (int failAfter : new int[] {0, 1, 100, 9000, p.length() / 2, p.length()}) {
+      Lexer lexer = new Lexer(trickle(istream(p), failAfter));
+      var tokens = new ArrayList<String>();
+      var e = assertThrows(MyPLException.class, () -> {
+        while (true) {
+          Token t = lexer.nextToken();
+          tokens.add(t.tokenType + " " + t.lexeme);
+        }
+      });
+      assertEquals(LexError.READ_ERROR, e.code());
+      assertEquals("read error", e.detail());
+      assertTrue(tokens.size() < expected.size());
+      assertEquals(expected.subList(0, tokens.size()), tokens, "fail after " + failAfter);
+      var reference = lexAll(new ReaderLexer(trickle(istream(p), failAfter)));
+      assertTrue(reference.endsWith("read error"), reference);
+    }
+  }
+
+}
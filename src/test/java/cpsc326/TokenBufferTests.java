@@ -0,0 +1,96 @@
+/**
+ * CPSC 326, Spring 2025
+ * Token buffer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * LexerTests holds the tokens read back out of a TokenBuffer to the
+ * lexer's. These cases cover the buffer itself: reading a whole
+ * stream, growing past its size estimate, and slicing the source.
+ */
+class TokenBufferTests {
+
+  /**
+   * Helper to build a reader that hands out one character per read.
+   */
+  static Reader trickle(String str) {
+    return new FilterReader(new StringReader(str)) {
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        return super.read(cbuf, off, Math.min(len, 1));
+      }
+    };
+  }
+
+  @Test
+  void readsWholeStreamsInShortReads() throws Exception {
+    for (int n : new int[] {0, 1, (1 << 16) - 1, 1 << 16, (1 << 16) + 1, 3 << 16}) {
+      var p = "x".repeat(n);
+      assertEquals(p, new String(TokenBuffer.readAll(trickle(p))), "length " + n);
+      assertEquals(p, new String(TokenBuffer.readAll(new StringReader(p))), "length " + n);
+    }
+  }
+
+  @Test
+  void failedReadsAreLexerErrors() {
+    var input = ReaderLexerTests.trickle(ReaderLexerTests.istream("x = 1"), 3);
+    var e = assertThrows(MyPLException.class, () -> TokenBuffer.lex(input));
+    assertEquals(LexError.READ_ERROR, e.code());
+    assertEquals("LEXER_ERROR: [1,1] read error", e.getMessage());
+  }
+
+  @Test
+  void growsPastItsSizeEstimate() {
+    var p = "(7".repeat(50000);
+    TokenBuffer tokens = TokenBuffer.lex(p.toCharArray());
+    assertEquals(100001, tokens.size());
+    assertEquals(TokenType.LPAREN, tokens.type(99998));
+    assertEquals(TokenType.INT_VAL, tokens.type(99999));
+    assertEquals(7, tokens.intValue(99999));
+    assertEquals(100000, tokens.column(99999));
+    assertEquals(TokenType.EOS, tokens.type(100000));
+    assertEquals(1, TokenBuffer.lex(new char[0]).size());
+  }
+
+  @Test
+  void slicesPointIntoSource() {
+    var p = "x = \"a\\tb\" # done\n";
+    TokenBuffer tokens = TokenBuffer.lex(p.toCharArray());
+    assertEquals(5, tokens.size());
+    assertEquals(TokenType.STRING_VAL, tokens.type(2));
+    assertEquals(5, tokens.start(2));
+    assertEquals(4, tokens.length(2));
+    assertEquals("a\tb", tokens.lexeme(2));
+    assertEquals(TokenType.COMMENT, tokens.type(3));
+    assertEquals(" done", tokens.lexeme(3));
+    assertEquals(1, tokens.line(3));
+    assertEquals(12, tokens.column(3));
+    assertEquals(TokenType.EOS, tokens.type(4));
+    assertEquals(2, tokens.line(4));
+  }
+
+  @Test
+  void tokenViewMatchesLexer() throws Exception {
+    var src = Files.readString(Path.of("examples/hw1_tokens.mypl"));
+    Lexer lexer = Lexer.of(src);
+    var tokens = TokenBuffer.lex(src.toCharArray()).tokens();
+    for (Token t : tokens) {
+      assertEquals(lexer.nextToken().toString(), t.toString());
+    }
+    assertEquals(TokenType.EOS, tokens.get(tokens.size() - 1).tokenType);
+  }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * CPSC 326, Spring 2025
+ * Token stream and spliterator tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+
+class TokenSpliteratorTests {
+
+  static ForkJoinPool pool = new ForkJoinPool(4);
+
+  @AfterAll
+  static void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Helper to create a lexer over a fully buffered source.
+   */
+  static Lexer buffered(String p) {
+    return Lexer.of(p);
+  }
+
+  /**
+   * Helper to collect every token with nextToken().
+   */
+  static List<String> tokens(String p) {
+    var out = new ArrayList<String>();
+    Lexer lexer = buffered(p);
+    Token t = null;
+    do {
+      t = lexer.nextToken();
+      out.add(t.toString());
+    } while (t.tokenType != TokenType.EOS);
+    return out;
+  }
+
+  @Test
+  void sequentialStreamMatchesNextToken() throws Exception {
+    var p = ParallelLexerTests.program();
+    assertEquals(tokens(p), buffered(p).stream().map(Token::toString).toList());
+    var lexer = new Lexer(new ByteArrayInputStream(p.getBytes()));
+    assertEquals(tokens(p), lexer.stream().map(Token::toString).toList());
+    assertEquals(List.of("EOS \"end-of-stream\" line 1 column 1"),
+                 buffered("").stream().map(Token::toString).toList());
+  }
+
+  @Test
+  void parallelStreamMatchesNextToken() throws Exception {
+    var p = ParallelLexerTests.program().repeat(50);
+    var tokens = pool.submit(() -> buffered(p).stream().parallel().map(Token::toString).toList()).get();
+    assertEquals(tokens(p), tokens);
+    Map<TokenType, Long> histogram = pool.submit(() -> buffered(p).stream().parallel()
+        .collect(Collectors.groupingByConcurrent(t -> t.tokenType, Collectors.counting()))).get();
+    assertEquals(1L, histogram.get(TokenType.EOS));
+    assertEquals(tokens(p).stream().filter(s -> s.startsWith("ID ")).count(), histogram.get(TokenType.ID));
+  }
+
+  @Test
+  void splitsAtNewlines() {
+    var p = "x = 1\n".repeat(2000);
+    Spliterator<Token> suffix = new TokenSpliterator(buffered(p), true);
+    Spliterator<Token> prefix = suffix.trySplit();
+    assertNotNull(prefix);
+    var first = new ArrayList<Token>();
+    prefix.forEachRemaining(first::add);
+    var second = new ArrayList<Token>();
+    suffix.forEachRemaining(second::add);
+    assertEquals(3003, first.size());
+    assertEquals(TokenType.ID, first.get(first.size() - 3).tokenType);
+    assertEquals("ID \"x\" line 1002 column 1", second.get(0).toString());
+    assertEquals("EOS \"end-of-stream\" line 2001 column 1", second.get(second.size() - 1).toString());
+    assertTrue(suffix.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL));
+  }
+
+  @Test
+  void publicFactoriesSplit(@TempDir Path dir) throws Exception {
+    var p = ParallelLexerTests.program().repeat(50);
+    Path file = dir.resolve("big.mypl");
+    Files.writeString(file, p);
+    for (Lexer lexer : List.of(Lexer.of(p), Lexer.of(p.toCharArray()), Lexer.of(file))) {
+      var suffix = lexer.stream().spliterator();
+      var prefix = suffix.trySplit();
+      assertNotNull(prefix);
+      var tokens = new ArrayList<String>();
+      prefix.forEachRemaining(t -> tokens.add(t.toString()));
+      suffix.forEachRemaining(t -> tokens.add(t.toString()));
+      assertEquals(tokens(p), tokens);
+    }
+  }
+
+  @Test
+  void unbufferedAndSmallSourcesDoNotSplit() {
+    var p = "x = 1\n".repeat(2000);
+    assertNull(new TokenSpliterator(new Lexer(new ByteArrayInputStream(p.getBytes())), true).trySplit());
+    assertNull(new TokenSpliterator(buffered("x = 1\ny = 2\n"), true).trySplit());
+  }
+
+  @Test
+  void errorsAreThrown() {
+    var p = "x = 1\n".repeat(2000) + "y = ?\n" + "x = 1\n".repeat(2000);
+    var e = assertThrows(ExecutionException.class,
+                         () -> pool.submit(() -> buffered(p).stream().parallel().count()).get());
+    assertEquals("LEXER_ERROR: [2001,5] unrecognized symbol '?'", e.getCause().getMessage());
+  }
+
+}
@@ -6,7 +6,9 @@
 package cpsc326;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
 
 
 class TokenTests {
@@ -31,4 +33,21 @@ class TokenTests {
     assertEquals("COMMA \",\" line 10 column 20", t.toString());
   }
 
+  @Test
+  void fixedLexemesAreShared() {
+    var p = "while (x <= 1) { x = x + 1 } while true";
+    Lexer lexer = new Lexer(new ByteArrayInputStream(p.getBytes()));
+    Token first = lexer.nextToken();
+    for (int i = 0; i < 12; ++i) {
+      Token t = lexer.nextToken();
+      if (t.tokenType.fixedLexeme() != null) {
+        assertSame(t.tokenType.fixedLexeme(), t.lexeme);
+      }
+    }
+    Token second = lexer.nextToken();
+    assertSame(first.lexeme, second.lexeme);
+    assertEquals("WHILE \"while\" line 1 column 30", second.toString());
+    assertSame(lexer.nextToken().lexeme, "true");
+  }
+
 }
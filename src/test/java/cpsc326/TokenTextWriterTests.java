@@ -0,0 +1,74 @@
+/**
+ * CPSC 326, Spring 2025
+ * Text token writer tests.
+ */
+
+package cpsc326;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+
+class TokenTextWriterTests {
+
+  /**
+   * Helper to write the given tokens and return the text.
+   */
+  static String write(List<Token> tokens, Charset charset) throws Exception {
+    var bytes = new ByteArrayOutputStream();
+    var out = new TokenTextWriter(bytes, charset);
+    for (Token t : tokens) {
+      out.write(t);
+    }
+    out.flush();
+    return bytes.toString(charset);
+  }
+
+  /**
+   * Helper to format the given tokens with println.
+   */
+  static String println(List<Token> tokens) {
+    var out = new StringBuilder();
+    for (Token t : tokens) {
+      out.append(t).append(System.lineSeparator());
+    }
+    return out.toString();
+  }
+
+  @Test
+  void matchesExampleOutputs() throws Exception {
+    for (var name : new String[] {"hw1_hello", "hw1_tokens"}) {
+      var src = Files.readString(Path.of("examples/" + name + ".mypl"));
+      var expected = Files.readString(Path.of("examples/" + name + ".out"));
+      var tokens = TokenBuffer.lex(src.toCharArray()).tokens();
+      assertEquals(expected, write(tokens, StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n"));
+    }
+  }
+
+  @Test
+  void matchesToString() throws Exception {
+    var tokens = List.of(
+      new Token(TokenType.STRING_VAL, "café 😀 \"q\"", 1, 7),
+      new Token(TokenType.ID, "λ", 12345678, 0),
+      new Token(TokenType.INT_VAL, "0", -3, Integer.MIN_VALUE),
+      new Token(TokenType.COMMENT, "", 9, 10),
+      new Token(TokenType.EOS, "end-of-stream", 10, 1));
+    assertEquals(println(tokens), write(tokens, StandardCharsets.UTF_8));
+    var ascii = new String(println(tokens).getBytes(StandardCharsets.US_ASCII), StandardCharsets.US_ASCII);
+    assertEquals(ascii, write(tokens, StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  void lexemesLongerThanTheBuffer() throws Exception {
+    var tokens = List.of(new Token(TokenType.ID, "x".repeat(200_000), 1, 1),
+                         new Token(TokenType.STRING_VAL, "é".repeat(100_000), 1, 200_002));
+    assertEquals(println(tokens), write(tokens, StandardCharsets.UTF_8));
+  }
+
+}